@@ -0,0 +1,36 @@
+package com.dimec.inventory.benchmark;
+
+import com.dimec.inventory.InventoryApplication;
+import com.dimec.inventory.service.DashboardService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Boots the real application against a private in-memory H2 database and tops it up to
+// the requested number of products. One context per benchmark trial (i.e. per fork).
+public final class BenchmarkContext {
+    
+    private BenchmarkContext() {
+    }
+    
+    public static ConfigurableApplicationContext start(int products) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryApplication.class)
+                .run(
+                        // Passed as arguments so they win over application.properties
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.dimec.inventory=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        // Keep the scheduled recount out of the measurement window
+                        "--inventory.dashboard.reconcile-interval-ms=86400000");
+        
+        new DatasetSeeder(context.getBean(JdbcTemplate.class)).seedProducts(products);
+        // Counters were materialized at startup, before the bulk insert
+        context.getBean(DashboardService.class).rebuild();
+        return context;
+    }
+}
@@ -0,0 +1,54 @@
+package com.dimec.inventory.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Bulk-loads products with batched JDBC inserts; going through JPA would take minutes at 1M rows
+public class DatasetSeeder {
+    
+    private static final int BATCH_SIZE = 10_000;
+    // Plenty of stock so issuance benchmarks never run a product dry
+    private static final int STOCKED_QUANTITY = 100_000_000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+    
+    public DatasetSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public void seedProducts(int target) {
+        List<Long> categoryIds = jdbcTemplate.queryForList("SELECT category_id FROM categories", Long.class);
+        List<Long> supplierIds = jdbcTemplate.queryForList("SELECT supplier_id FROM suppliers", Long.class);
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        
+        String sql = "INSERT INTO products (name, category_id, supplier_id, quantity, unit_price, reorder_level, "
+                + "stock_margin, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long i = existing == null ? 0 : existing; i < target; i++) {
+            // Roughly one product in ten sits at or below its reorder level
+            boolean lowStock = i % 10 == 0;
+            batch.add(new Object[] {
+                    "Benchmark Product " + i,
+                    categoryIds.get((int) (i % categoryIds.size())),
+                    supplierIds.get((int) (i % supplierIds.size())),
+                    lowStock ? 5 : STOCKED_QUANTITY,
+                    BigDecimal.valueOf(100 + random.nextInt(99_900), 2),
+                    10,
+                    (lowStock ? 5 : STOCKED_QUANTITY) - 10,
+                    "Synthetic product " + i + " for benchmarking"
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
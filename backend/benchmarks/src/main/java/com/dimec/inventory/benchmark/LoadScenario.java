@@ -0,0 +1,352 @@
+package com.dimec.inventory.benchmark;
+
+import com.dimec.inventory.InventoryApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop HTTP load against the backend in platform-thread and virtual-thread serving modes.
+// Each mode gets a fresh server process seeded with the same deterministic dataset, then `clients`
+// threads run a fixed request mix; throughput and latency percentiles go to stdout and JSON.
+//
+//   mvn -B package exec:exec@load -Dload.args="products=100000 clients=400 duration=60"
+public class LoadScenario {
+    
+    private enum Operation {
+        PRODUCT_PAGE(40),
+        PRODUCT_BY_ID(25),
+        DASHBOARD(15),
+        CREATE_ISSUANCE(20);
+        
+        final int weight;
+        
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    
+    private final Map<String, String> options;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    
+    private LoadScenario(Map<String, String> options) {
+        this.options = options;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("modes", "platform,virtual");
+        options.put("products", "100000");
+        options.put("issuances", "200000");
+        options.put("clients", "200");
+        options.put("warmup", "15");
+        options.put("duration", "30");
+        options.put("server-heap", "2g");
+        options.put("result", "target/load-result.json");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        
+        if (Runtime.version().feature() < 21) {
+            System.out.println("WARNING: Java " + Runtime.version().feature() + " runtime; virtual threads need 21, "
+                    + "so the virtual mode will run on platform threads");
+        }
+        
+        LoadScenario scenario = new LoadScenario(options);
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String mode : options.get("modes").split(",")) {
+            results.add(scenario.run(mode.trim()));
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("java", Runtime.version().toString());
+        report.put("options", options);
+        report.put("results", results);
+        File out = new File(options.get("result"));
+        out.getAbsoluteFile().getParentFile().mkdirs();
+        MAPPER.writeValue(out, report);
+        System.out.println("Results written to " + out.getAbsolutePath());
+    }
+    
+    private Map<String, Object> run(String mode) throws Exception {
+        int port = freePort();
+        Process server = startServer(mode, port);
+        try {
+            String base = "http://localhost:" + port + "/api";
+            awaitReady(base, server);
+            String token = login(base);
+            long[] productIds = productIds(base, token);
+            
+            int clients = intOption("clients");
+            long warmupNanos = Duration.ofSeconds(intOption("warmup")).toNanos();
+            long durationNanos = Duration.ofSeconds(intOption("duration")).toNanos();
+            long start = System.nanoTime();
+            long measureFrom = start + warmupNanos;
+            long end = measureFrom + durationNanos;
+            
+            System.out.printf("[%s] %d clients, %ds warm-up, %ds measured%n",
+                    mode, clients, intOption("warmup"), intOption("duration"));
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            List<Future<Recorder>> workers = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                long seed = 42L * (c + 1);
+                workers.add(pool.submit(() -> drive(base, token, productIds, seed, measureFrom, end)));
+            }
+            Recorder total = new Recorder();
+            for (Future<Recorder> worker : workers) {
+                total.merge(worker.get());
+            }
+            pool.shutdown();
+            
+            Map<String, Object> result = total.summary(durationNanos);
+            result.put("mode", mode);
+            Map<String, Object> printable = new LinkedHashMap<>(result);
+            printable.remove("operations");
+            System.out.printf("[%s] %s%n", mode, printable);
+            return result;
+        } finally {
+            server.destroy();
+            server.waitFor();
+        }
+    }
+    
+    private Recorder drive(String base, String token, long[] productIds, long seed, long measureFrom, long end) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Recorder recorder = new Recorder();
+        int totalWeight = Arrays.stream(Operation.values()).mapToInt(o -> o.weight).sum();
+        
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                return recorder;
+            }
+            Operation operation = pick(random.nextInt(totalWeight));
+            long productId = productIds[random.nextInt(productIds.length)];
+            HttpRequest request = request(base, token, operation, productId);
+            
+            long started = System.nanoTime();
+            int status;
+            try {
+                status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return recorder;
+            }
+            long elapsed = System.nanoTime() - started;
+            if (started >= measureFrom) {
+                // 409 is an expected business outcome (stock ran out), not a failure
+                recorder.record(operation, elapsed, (status >= 200 && status < 300) || status == 409);
+            }
+        }
+    }
+    
+    private static Operation pick(int roll) {
+        for (Operation operation : Operation.values()) {
+            if (roll < operation.weight) {
+                return operation;
+            }
+            roll -= operation.weight;
+        }
+        throw new IllegalStateException();
+    }
+    
+    private static HttpRequest request(String base, String token, Operation operation, long productId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30));
+        switch (operation) {
+            case PRODUCT_PAGE:
+                return builder.uri(URI.create(base + "/products?limit=50")).GET().build();
+            case PRODUCT_BY_ID:
+                return builder.uri(URI.create(base + "/products/" + productId)).GET().build();
+            case DASHBOARD:
+                return builder.uri(URI.create(base + "/dashboard/stats")).GET().build();
+            default:
+                String body = "{\"productId\":" + productId + ",\"quantityIssued\":1,"
+                        + "\"issuedTo\":\"Load test\",\"purpose\":\"Load test\"}";
+                return builder.uri(URI.create(base + "/issuances"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+        }
+    }
+    
+    private Process startServer(String mode, int port) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(
+                java, "-Xmx" + options.get("server-heap"),
+                "-cp", System.getProperty("java.class.path"),
+                InventoryApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.dimec.inventory=INFO",
+                "--logging.level.org.springframework.security=WARN",
+                "--inventory.dashboard.reconcile-interval-ms=86400000",
+                "--inventory.seed.products=" + options.get("products"),
+                "--inventory.seed.issuances=" + options.get("issuances"),
+                "--inventory.seed.random-seed=42"));
+        if ("virtual".equals(mode)) {
+            command.add("--spring.profiles.active=virtual");
+        }
+        File log = new File("target/load-server-" + mode + ".log");
+        log.getAbsoluteFile().getParentFile().mkdirs();
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+    }
+    
+    private void awaitReady(String base, Process server) throws Exception {
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(base + "/actuator/health/readiness")).GET().build();
+        long deadline = System.nanoTime() + Duration.ofMinutes(30).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Server exited during startup, see target/load-server-*.log");
+            }
+            try {
+                if (http.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Server did not become ready");
+    }
+    
+    private String login(String base) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"admin@dimec.com\",\"password\":\"admin123\"}"))
+                .build();
+        JsonNode response = MAPPER.readTree(http.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return response.get("token").asText();
+    }
+    
+    // Walks the keyset pages once to collect every product id
+    private long[] productIds(String base, String token) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            String uri = base + "/products?limit=200" + (after == null ? "" : "&after=" + after);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                    .header("Authorization", "Bearer " + token).GET().build();
+            JsonNode page = MAPPER.readTree(http.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            page.get("items").forEach(item -> ids.add(item.get("productId").asLong()));
+            after = page.get("hasMore").asBoolean() ? page.get("next").asText() : null;
+        } while (after != null);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    // Latencies per operation in nanoseconds, plus error counts
+    private static class Recorder {
+        private final Map<Operation, long[]> latencies = new LinkedHashMap<>();
+        private final Map<Operation, Integer> counts = new LinkedHashMap<>();
+        private long errors;
+        
+        void record(Operation operation, long nanos, boolean ok) {
+            long[] values = latencies.computeIfAbsent(operation, o -> new long[1024]);
+            int count = counts.getOrDefault(operation, 0);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                latencies.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+            if (!ok) {
+                errors++;
+            }
+        }
+        
+        void merge(Recorder other) {
+            other.latencies.forEach((operation, values) -> {
+                int count = other.counts.get(operation);
+                for (int i = 0; i < count; i++) {
+                    record(operation, values[i], true);
+                }
+            });
+            errors += other.errors;
+        }
+        
+        Map<String, Object> summary(long durationNanos) {
+            long[] all = new long[0];
+            Map<String, Object> operations = new LinkedHashMap<>();
+            for (Map.Entry<Operation, long[]> entry : latencies.entrySet()) {
+                long[] values = Arrays.copyOf(entry.getValue(), counts.get(entry.getKey()));
+                Arrays.sort(values);
+                operations.put(entry.getKey().name(), percentiles(values, durationNanos));
+                
+                long[] merged = Arrays.copyOf(all, all.length + values.length);
+                System.arraycopy(values, 0, merged, all.length, values.length);
+                all = merged;
+            }
+            Arrays.sort(all);
+            Map<String, Object> summary = percentiles(all, durationNanos);
+            summary.put("errors", errors);
+            summary.put("operations", operations);
+            return summary;
+        }
+        
+        private static Map<String, Object> percentiles(long[] sorted, long durationNanos) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", sorted.length);
+            summary.put("throughputPerSecond", Math.round(sorted.length / (durationNanos / 1e9) * 10) / 10.0);
+            summary.put("p50Ms", millis(sorted, 0.50));
+            summary.put("p90Ms", millis(sorted, 0.90));
+            summary.put("p99Ms", millis(sorted, 0.99));
+            summary.put("maxMs", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            return summary;
+        }
+        
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return Math.round(sorted[Math.max(0, index)] / 1e4) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.dimec.inventory.config;
+
+import com.dimec.inventory.benchmark.BenchmarkContext;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Token handling does not touch the database, so these run against the smallest dataset only
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class JwtBenchmark {
+    
+    private ConfigurableApplicationContext context;
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private String authorization;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(1000);
+        jwtUtil = context.getBean(JwtUtil.class);
+        filter = context.getBean(JwtAuthenticationFilter.class);
+        token = jwtUtil.generateToken(1L, "admin@dimec.com", "ADMIN");
+        authorization = "Bearer " + token;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, "admin@dimec.com", "ADMIN");
+    }
+    
+    // Repeat request with a token already in the verification cache
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtUtil.verify(token);
+    }
+    
+    // Full signature check and claims parsing, as on the first request with a token
+    @Benchmark
+    public Claims parseUncached() {
+        return jwtUtil.parseClaims(token);
+    }
+    
+    @Benchmark
+    public Authentication filterAuthenticatedRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
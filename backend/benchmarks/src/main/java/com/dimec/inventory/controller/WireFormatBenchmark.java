@@ -0,0 +1,102 @@
+package com.dimec.inventory.controller;
+
+import com.dimec.inventory.benchmark.BenchmarkContext;
+import com.dimec.inventory.dto.IssuanceRecordDTO;
+import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encodes 10k product or issuance rows with the object mapper behind each negotiated format, as
+// the list endpoints do. Payload sizes (raw and gzipped) are printed once per trial.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class WireFormatBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"products", "issuances"})
+    private String payload;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private List<?> rows;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(ROWS);
+        switch (format) {
+            case "smile":
+                mapper = context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+                break;
+            case "cbor":
+                mapper = context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+                break;
+            default:
+                mapper = context.getBean(MappingJackson2HttpMessageConverter.class).getObjectMapper();
+        }
+        List<ProductDTO> products = context.getBean(ProductService.class).getAllProducts().subList(0, ROWS);
+        rows = "products".equals(payload) ? products : issuances(products);
+
+        encoded = mapper.writeValueAsBytes(rows);
+        System.out.printf("%n%s as %s: %d bytes, %d gzipped%n", payload, format, encoded.length, gzippedSize(encoded));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(rows);
+    }
+
+    // Client side of the same payload, e.g. the sync job
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return mapper.readValue(encoded, Object.class);
+    }
+
+    // Shaped like IssuanceRecordDTO rows from the list endpoint, one per product
+    private static List<IssuanceRecordDTO> issuances(List<ProductDTO> products) {
+        List<IssuanceRecordDTO> issuances = new ArrayList<>(products.size());
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < products.size(); i++) {
+            ProductDTO product = products.get(i);
+            issuances.add(new IssuanceRecordDTO((long) i + 1, product.getProductId(), product.getName(),
+                    1L, "System Administrator", 1 + i % 20, "Department " + (i % 12),
+                    today.minusDays(i % 365), "Routine issuance for office use"));
+        }
+        return issuances;
+    }
+
+    private static int gzippedSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
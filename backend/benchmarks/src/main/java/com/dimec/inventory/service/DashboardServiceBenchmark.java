@@ -0,0 +1,47 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.benchmark.BenchmarkContext;
+import com.dimec.inventory.dto.DashboardStats;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DashboardServiceBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int products;
+    
+    private ConfigurableApplicationContext context;
+    private DashboardService dashboardService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(products);
+        dashboardService = context.getBean(DashboardService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    // Served from the materialized counters row
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public DashboardStats getDashboardStats() {
+        return dashboardService.getDashboardStats();
+    }
+    
+    // Full recount, i.e. what every dashboard request cost before the counters were materialized
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void recount() {
+        dashboardService.rebuild();
+    }
+}
@@ -0,0 +1,88 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.benchmark.BenchmarkContext;
+import com.dimec.inventory.config.AuthenticatedUser;
+import com.dimec.inventory.dto.CreateIssuanceRequest;
+import com.dimec.inventory.dto.IssuanceRecordDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class IssuanceServiceBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int products;
+    
+    private ConfigurableApplicationContext context;
+    private IssuanceService issuanceService;
+    private long[] stockedProductIds;
+    private AuthenticatedUser caller;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(products);
+        issuanceService = context.getBean(IssuanceService.class);
+        List<Long> ids = context.getBean(JdbcTemplate.class)
+                .queryForList("SELECT product_id FROM products WHERE quantity >= 1000000 ORDER BY product_id", Long.class);
+        stockedProductIds = ids.stream().mapToLong(Long::longValue).toArray();
+        Long adminId = context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT user_id FROM users WHERE email = 'admin@dimec.com'", Long.class);
+        caller = new AuthenticatedUser(adminId, "admin@dimec.com", "ADMIN");
+    }
+    
+    // Issuances are attributed to the authenticated caller, whose context is per thread
+    @State(Scope.Thread)
+    public static class Caller {
+        @Setup(Level.Trial)
+        public void authenticate(IssuanceServiceBenchmark benchmark) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    benchmark.caller, null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        }
+        
+        @TearDown(Level.Trial)
+        public void clear() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    // Issuances spread over the catalog: no row contention
+    @Benchmark
+    public IssuanceRecordDTO createIssuance(Caller caller) {
+        long productId = stockedProductIds[ThreadLocalRandom.current().nextInt(stockedProductIds.length)];
+        return issuanceService.createIssuance(request(productId));
+    }
+    
+    // Every thread issues the same product: measures the conditional stock UPDATE under row-lock contention
+    @Benchmark
+    @Threads(8)
+    public IssuanceRecordDTO createIssuanceHotProduct(Caller caller) {
+        return issuanceService.createIssuance(request(stockedProductIds[0]));
+    }
+    
+    private static CreateIssuanceRequest request(long productId) {
+        CreateIssuanceRequest request = new CreateIssuanceRequest();
+        request.setProductId(productId);
+        request.setQuantityIssued(1);
+        request.setIssuedTo("Benchmark");
+        request.setPurpose("Benchmark");
+        return request;
+    }
+}
@@ -0,0 +1,60 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.benchmark.BenchmarkContext;
+import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.dto.ProductSuggestion;
+import com.dimec.inventory.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductSearchBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int products;
+    
+    @Param({"laptop", "product 42"})
+    private String term;
+    
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(products);
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        // The index was built at startup, before the bulk insert
+        context.getBean(ProductSearchIndex.class).rebuild();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<ProductDTO> searchIndexed() {
+        return productService.searchProducts(term);
+    }
+    
+    // The LIKE scan the index replaced
+    @Benchmark
+    public List<ProductDTO> searchLike() {
+        return productRepository.searchDTOsByName(term);
+    }
+    
+    @Benchmark
+    public List<ProductSuggestion> autocomplete() {
+        return productService.autocomplete(term, null);
+    }
+}
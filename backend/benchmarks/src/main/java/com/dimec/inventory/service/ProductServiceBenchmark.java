@@ -0,0 +1,63 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.benchmark.BenchmarkContext;
+import com.dimec.inventory.dto.CursorPage;
+import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.model.Product;
+import com.dimec.inventory.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductServiceBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int products;
+    
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private List<Product> sample;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(products);
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        // Detached entities with category and supplier already loaded, as on the write paths
+        sample = productRepository.findAll(PageRequest.of(0, 1000)).getContent();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public ProductDTO convertToDTO() {
+        next = (next + 1) % sample.size();
+        return productService.convertToDTO(sample.get(next));
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<ProductDTO> getAllProducts() {
+        return productService.getAllProducts();
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public CursorPage<ProductDTO> getFirstProductPage() {
+        return productService.getProductPage(null, null);
+    }
+}
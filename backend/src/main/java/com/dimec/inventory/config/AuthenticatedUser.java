@@ -0,0 +1,35 @@
+package com.dimec.inventory.config;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+// Principal built from the JWT claims, so request handling knows who is acting without a users lookup
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    
+    // Null for tokens issued before the id claim existed
+    private final Long userId;
+    private final String email;
+    private final String role;
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+    
+    public static Optional<AuthenticatedUser> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,46 @@
+package com.dimec.inventory.config;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt work factor helpers: read the cost out of a stored hash, and pick the cost for new hashes
+public final class BCryptCost {
+    
+    public static final int MIN_COST = 10;
+    public static final int MAX_COST = 16;
+    
+    private static final Pattern HASH = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$.{53}$");
+    
+    private BCryptCost() {
+    }
+    
+    // Cost of an encoded hash, or -1 if it is not a BCrypt hash
+    public static int of(String encoded) {
+        if (encoded == null) {
+            return -1;
+        }
+        Matcher matcher = HASH.matcher(encoded);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+    
+    // Highest cost whose hash time on this machine stays within the target, never below MIN_COST.
+    // Each step doubles the work, so timing stops at the first cost that overshoots.
+    public static int calibrate(long targetMillis) {
+        String salt = BCrypt.gensalt(4);
+        BCrypt.hashpw("warm-up", salt);
+        
+        int chosen = MIN_COST;
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            long started = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(cost));
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = cost;
+        }
+        return chosen;
+    }
+}
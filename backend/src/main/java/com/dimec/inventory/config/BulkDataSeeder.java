@@ -0,0 +1,406 @@
+package com.dimec.inventory.config;
+
+import com.dimec.inventory.service.DashboardService;
+import com.dimec.inventory.service.IssuanceReportService;
+import com.dimec.inventory.service.ProductSearchIndex;
+import com.dimec.inventory.service.ProductVersions;
+import com.dimec.inventory.service.StockLedgerService;
+import com.dimec.inventory.service.TableVersions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Bulk synthetic data for load testing (inventory.seed.products / inventory.seed.issuances).
+// Runs on a background thread after startup, writes through batched JDBC inserts split into
+// chunks across a small pool, and reports readiness through the "datasetSeed" health indicator.
+@Component("datasetSeed")
+public class BulkDataSeeder implements HealthIndicator {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkDataSeeder.class);
+    
+    // Rows per parallel task; each task writes them in JDBC batches of batchSize
+    private static final int CHUNK_SIZE = 50_000;
+    // Must match allocationSize of the issuance id generator, see IssuanceRecord
+    private static final int ISSUANCE_ID_BLOCK = 50;
+    
+    private static final String[][] CATEGORY_TEMPLATES = {
+            {"Networking", "Switch,Router,Access Point,Patch Panel,Network Cable", "Cisco,TP-Link,Ubiquiti,Netgear"},
+            {"Computer Accessories", "Keyboard,Mouse,Monitor,Docking Station,Webcam", "Logitech,Dell,HP,Lenovo"},
+            {"Furniture", "Desk,Chair,Cabinet,Bookshelf,Meeting Table", "Steelcase,Ikea,Herman Miller"},
+            {"Stationery", "Notebook,Pen Box,Stapler,Envelope Pack,Folder", "Bic,Pilot,Oxford,Staedtler"},
+            {"Printing & Imaging", "Toner Cartridge,Ink Cartridge,Printer Paper,Scanner,Drum Unit", "HP,Canon,Epson,Brother"},
+            {"Power & Electrical", "UPS,Extension Cord,Surge Protector,Battery Pack,Inverter", "APC,Eaton,Schneider"},
+            {"Cleaning Supplies", "Detergent,Mop,Disinfectant,Trash Bags,Paper Towels", "Dettol,Jik,Omo"},
+            {"Safety Equipment", "Helmet,Safety Vest,Fire Extinguisher,First Aid Kit,Gloves", "3M,Honeywell,MSA"},
+            {"Tools & Hardware", "Drill,Screwdriver Set,Hammer,Measuring Tape,Ladder", "Bosch,Makita,Stanley"},
+            {"Audio Visual", "Projector,Speaker,Microphone,Display Screen,HDMI Cable", "Sony,Epson,JBL,Samsung"},
+            {"Kitchen & Catering", "Kettle,Coffee Maker,Water Dispenser,Cups Pack,Microwave", "Philips,Nescafe,Hisense"},
+            {"Vehicle Parts", "Tyre,Engine Oil,Brake Pad,Air Filter,Car Battery", "Toyota,Michelin,Castrol"}
+    };
+    private static final String[] SUPPLIER_WORDS = {
+            "Kigali", "Rwanda", "East Africa", "Great Lakes", "Umoja", "Horizon", "Summit", "Prime", "Unity", "Apex"
+    };
+    private static final String[] SUPPLIER_KINDS = {
+            "Trading", "Supplies", "Distributors", "Solutions", "Logistics", "Imports", "Wholesale"
+    };
+    private static final String[] DEPARTMENTS = {
+            "IT Department", "Finance", "Human Resources", "Operations", "Procurement", "Sales", "Marketing",
+            "Security", "Facilities", "Logistics", "Customer Service", "Management"
+    };
+    private static final String[] PURPOSES = {
+            "New employee setup", "Replacement", "Project use", "Routine restock", "Maintenance", "Event", null
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private TableVersions tableVersions;
+    
+    @Autowired
+    private IssuanceReportService issuanceReportService;
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    @Autowired
+    private ProductVersions productVersions;
+    
+    @Value("${inventory.seed.products:0}")
+    private int productCount;
+    
+    @Value("${inventory.seed.issuances:0}")
+    private long issuanceCount;
+    
+    @Value("${inventory.seed.categories:40}")
+    private int categoryCount;
+    
+    @Value("${inventory.seed.suppliers:200}")
+    private int supplierCount;
+    
+    @Value("${inventory.seed.history-days:365}")
+    private int historyDays;
+    
+    // Zipf exponent of SKU popularity: around 1 a few products take most issuances
+    @Value("${inventory.seed.popularity-skew:1.1}")
+    private double popularitySkew;
+    
+    @Value("${inventory.seed.threads:4}")
+    private int threads;
+    
+    @Value("${inventory.seed.batch-size:5000}")
+    private int batchSize;
+    
+    @Value("${inventory.seed.random-seed:42}")
+    private long randomSeed;
+    
+    private enum State {
+        IDLE,
+        SEEDING,
+        COMPLETE,
+        FAILED
+    }
+    
+    private volatile State state = State.IDLE;
+    private volatile Throwable failure;
+    
+    // Part of the readiness group: load generators wait on /actuator/health/readiness
+    @Override
+    public Health health() {
+        switch (state) {
+            case SEEDING:
+                return Health.outOfService().withDetail("seed", state).build();
+            case FAILED:
+                return Health.down().withDetail("seed", state).withDetail("error", String.valueOf(failure)).build();
+            default:
+                return Health.up().withDetail("seed", state).build();
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (productCount <= 0 && issuanceCount <= 0) {
+            return;
+        }
+        state = State.SEEDING;
+        Thread seeder = new Thread(this::seed, "dataset-seeder");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+    
+    private void seed() {
+        long started = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            if (productCount > 0) {
+                // Categories and suppliers are independent of each other
+                Future<long[]> categories = pool.submit(this::seedCategories);
+                Future<long[]> suppliers = pool.submit(this::seedSuppliers);
+                seedProducts(pool, categories.get(), suppliers.get());
+            }
+            // Issuance history spreads over the whole catalog, sample products included
+            long[] productIds = idsAfter("products", "product_id", 0L);
+            seedIssuances(pool, productIds);
+            
+            // Derived state was built at startup from the small sample data set
+            dashboardService.rebuild();
+            productSearchIndex.rebuild();
+            issuanceReportService.rebuild();
+            stockLedgerService.recordOpeningBalances();
+            productVersions.stampUnversioned();
+            for (TableVersions.Table table : TableVersions.Table.values()) {
+                tableVersions.bumpAfterCommit(table);
+            }
+            
+            state = State.COMPLETE;
+            log.info("Dataset seeding finished in {} ms ({} products in catalog)",
+                    System.currentTimeMillis() - started, productIds.length);
+        } catch (Exception e) {
+            failure = e instanceof ExecutionException ? e.getCause() : e;
+            state = State.FAILED;
+            log.error("Dataset seeding failed", failure);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private long[] seedCategories() {
+        long before = maxId("categories", "category_id");
+        int count = Math.max(1, categoryCount);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] template = CATEGORY_TEMPLATES[i % CATEGORY_TEMPLATES.length];
+            // Names are unique; later rounds through the templates are numbered
+            String name = template[0] + " " + (i / CATEGORY_TEMPLATES.length + 1);
+            rows.add(new Object[] {name, template[1].replace(",", ", ")});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO categories (name, description) VALUES (?, ?)", rows);
+        return idsAfter("categories", "category_id", before);
+    }
+    
+    private long[] seedSuppliers() {
+        long before = maxId("suppliers", "supplier_id");
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        int count = Math.max(1, supplierCount);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = SUPPLIER_WORDS[random.nextInt(SUPPLIER_WORDS.length)] + " "
+                    + SUPPLIER_KINDS[random.nextInt(SUPPLIER_KINDS.length)] + " Ltd";
+            rows.add(new Object[] {
+                    name,
+                    "Contact " + (i + 1),
+                    "supplier" + (before + i + 1) + "@seed.dimec.rw",
+                    "Kigali, Rwanda - KN " + (1 + random.nextInt(200)) + " St"
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO suppliers (name, contact, email, address) VALUES (?, ?, ?, ?)", rows);
+        return idsAfter("suppliers", "supplier_id", before);
+    }
+    
+    private void seedProducts(ExecutorService pool, long[] categoryIds, long[] supplierIds) throws Exception {
+        String sql = "INSERT INTO products (name, category_id, supplier_id, quantity, unit_price, reorder_level, "
+                + "stock_margin, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < productCount; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(productCount, from + CHUNK_SIZE);
+            chunks.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(randomSeed + start);
+                List<Object[]> batch = new ArrayList<>(batchSize);
+                for (int i = start; i < end; i++) {
+                    int c = random.nextInt(categoryIds.length);
+                    String[] template = CATEGORY_TEMPLATES[c % CATEGORY_TEMPLATES.length];
+                    String[] nouns = template[1].split(",");
+                    String[] brands = template[2].split(",");
+                    String noun = nouns[random.nextInt(nouns.length)];
+                    
+                    int reorderLevel = 5 + random.nextInt(46);
+                    // Most shelves are comfortably stocked; about one in twelve sits at or under reorder level
+                    int quantity = random.nextInt(12) == 0
+                            ? random.nextInt(reorderLevel + 1)
+                            : reorderLevel + 1 + random.nextInt(500);
+                    // Log-uniform prices between 1 and 5000
+                    BigDecimal price = BigDecimal.valueOf(Math.round(Math.exp(random.nextDouble() * Math.log(5000)) * 100), 2);
+                    
+                    batch.add(new Object[] {
+                            brands[random.nextInt(brands.length)] + " " + noun + " " + skuCode(i),
+                            categoryIds[c],
+                            supplierIds[random.nextInt(supplierIds.length)],
+                            quantity,
+                            price,
+                            reorderLevel,
+                            quantity - reorderLevel,
+                            noun + " for " + template[0].toLowerCase()
+                    });
+                    if (batch.size() == batchSize) {
+                        jdbcTemplate.batchUpdate(sql, batch);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                }
+            }));
+        }
+        for (Future<?> chunk : chunks) {
+            chunk.get();
+        }
+        log.info("Seeded {} products", productCount);
+    }
+    
+    private void seedIssuances(ExecutorService pool, long[] productIds) throws Exception {
+        if (issuanceCount <= 0 || productIds.length == 0) {
+            return;
+        }
+        String nextIdSql = issuanceSequenceSql();
+        if (nextIdSql == null) {
+            log.warn("Skipping issuance seeding: the database has no sequences for issuance ids");
+            return;
+        }
+        long[] userIds = jdbcTemplate.queryForList("SELECT user_id FROM users WHERE role <> 'VIEWER'", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        if (userIds.length == 0) {
+            log.warn("Skipping issuance seeding: no users to issue as");
+            return;
+        }
+        
+        double[] cumulative = zipfCumulative(productIds.length);
+        // Popularity rank -> product, shuffled so best sellers are spread across the id range
+        long[] byRank = productIds.clone();
+        SplittableRandom shuffle = new SplittableRandom(randomSeed);
+        for (int i = byRank.length - 1; i > 0; i--) {
+            int j = shuffle.nextInt(i + 1);
+            long swap = byRank[i];
+            byRank[i] = byRank[j];
+            byRank[j] = swap;
+        }
+        
+        LocalDate today = LocalDate.now();
+        String sql = "INSERT INTO issuance_records (issuance_id, product_id, user_id, quantity_issued, issued_to, issue_date, purpose) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        
+        List<Future<?>> chunks = new ArrayList<>();
+        for (long from = 0; from < issuanceCount; from += CHUNK_SIZE) {
+            long start = from;
+            long end = Math.min(issuanceCount, from + CHUNK_SIZE);
+            chunks.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(randomSeed ^ (start * 31 + 7));
+                List<Object[]> batch = new ArrayList<>(batchSize);
+                long nextId = 0;
+                long lastId = -1;
+                for (long i = start; i < end; i++) {
+                    if (nextId > lastId) {
+                        lastId = nextIssuanceIdBlock(nextIdSql);
+                        nextId = lastId - ISSUANCE_ID_BLOCK + 1;
+                    }
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+                    long productId = byRank[Math.min(rank < 0 ? -rank - 1 : rank, byRank.length - 1)];
+                    // Mostly single items, occasionally a handful
+                    int quantity = random.nextInt(10) < 7 ? 1 : 2 + random.nextInt(9);
+                    
+                    batch.add(new Object[] {
+                            nextId++,
+                            productId,
+                            userIds[random.nextInt(userIds.length)],
+                            quantity,
+                            DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                            Date.valueOf(today.minusDays(random.nextInt(Math.max(1, historyDays)))),
+                            PURPOSES[random.nextInt(PURPOSES.length)]
+                    });
+                    if (batch.size() == batchSize) {
+                        jdbcTemplate.batchUpdate(sql, batch);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                }
+            }));
+        }
+        for (Future<?> chunk : chunks) {
+            chunk.get();
+        }
+        log.info("Seeded {} issuances", issuanceCount);
+    }
+    
+    // Hibernate's pooled optimizer owns ids (v - 49, v] for every sequence value v it reads, so
+    // reserving blocks the same way keeps seeded ids clear of ones the application assigns later.
+    // The very first value (the sequence start) is special-cased by Hibernate and skipped here.
+    private long nextIssuanceIdBlock(String nextIdSql) {
+        long value;
+        do {
+            value = jdbcTemplate.queryForObject(nextIdSql, Long.class);
+        } while (value < ISSUANCE_ID_BLOCK);
+        return value;
+    }
+    
+    private String issuanceSequenceSql() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        if (!dialect.getSequenceSupport().supportsSequences()) {
+            return null;
+        }
+        return dialect.getSequenceSupport().getSequenceNextValString("issuance_records_seq");
+    }
+    
+    private double[] zipfCumulative(int n) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, popularitySkew);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+    
+    private static String skuCode(int i) {
+        return "SKU-" + Integer.toString(i + 1000, 36).toUpperCase();
+    }
+    
+    private long maxId(String table, String idColumn) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM " + table, Long.class);
+        return max == null ? 0L : max;
+    }
+    
+    private long[] idsAfter(String table, String idColumn, long afterId) {
+        return jdbcTemplate.queryForList(
+                "SELECT " + idColumn + " FROM " + table + " WHERE " + idColumn + " > ? ORDER BY " + idColumn,
+                Long.class, afterId)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+}
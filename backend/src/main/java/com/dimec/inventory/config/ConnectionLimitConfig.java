@@ -0,0 +1,41 @@
+package com.dimec.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Puts LimitedDataSource in front of the connection pool (inventory.db.limiter.enabled=true,
+// on by default in the "virtual" profile)
+@Configuration
+@ConditionalOnProperty(name = "inventory.db.limiter.enabled", havingValue = "true")
+public class ConnectionLimitConfig {
+    
+    @Bean
+    public static BeanPostProcessor connectionLimitPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof LimitedDataSource) {
+                    return bean;
+                }
+                int permits = environment.getProperty("inventory.db.limiter.permits", Integer.class, 0);
+                if (permits <= 0 && bean instanceof HikariDataSource hikari) {
+                    // Default to the pool size: a permit is a guarantee that a connection is free
+                    permits = hikari.getMaximumPoolSize();
+                }
+                if (permits <= 0) {
+                    // Hikari reports -1 until the pool starts, then applies its own default of 10
+                    permits = 10;
+                }
+                long timeoutMs = environment.getProperty("inventory.db.limiter.acquire-timeout-ms", Long.class, 10000L);
+                int maxWaiters = environment.getProperty("inventory.db.limiter.max-waiters", Integer.class, 0);
+                return new LimitedDataSource((DataSource) bean, permits, timeoutMs, maxWaiters);
+            }
+        };
+    }
+}
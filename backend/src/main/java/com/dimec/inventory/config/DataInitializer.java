@@ -26,6 +26,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private IssuanceRecordRepository issuanceRecordRepository;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -235,10 +238,12 @@ public class DataInitializer implements CommandLineRunner {
             issuance1.setIssuedTo("IT Department");
             issuance1.setIssueDate(LocalDate.now().minusDays(5));
             issuance1.setPurpose("New employee setup");
+            issuance1.setUnitPrice(laptop.getUnitPrice());
             
-            // Save the issuance record
-            // Note: In a real system, you would also update the product stock
-            // For now, we'll just create the record
+            // Save the issuance record and take the issued units out of stock
+            issuanceRecordRepository.save(issuance1);
+            laptop.setQuantity(laptop.getQuantity() - issuance1.getQuantityIssued());
+            productRepository.save(laptop);
             
             System.out.println("✓ Created sample issuance records");
         }
@@ -0,0 +1,60 @@
+package com.dimec.inventory.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves the table-emulated id sequences (MySQL has no sequences) past the ids already in their
+// tables. issuance_records used IDENTITY before; with ddl-auto=update Hibernate creates
+// issuance_records_seq starting at 1, and the first pooled block would collide with existing
+// rows. Runs once at startup, before the runners and the web server.
+@Component
+public class IdSequenceAlignment {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAlignment.class);
+    
+    // Must match allocationSize of the id generators, see IssuanceRecord and StockMovement
+    private static final int ALLOCATION_SIZE = 50;
+    
+    // sequence table, entity table, id column
+    private static final String[][] SEQUENCES = {
+            {"issuance_records_seq", "issuance_records", "issuance_id"},
+            {"stock_movements_seq", "stock_movements", "movement_id"}
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    void align() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            return;
+        }
+        for (String[] sequence : SEQUENCES) {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(" + sequence[2] + ") FROM " + sequence[1], Long.class);
+            if (maxId == null) {
+                continue;
+            }
+            // The pooled optimizer hands out (v - 50, v] for a value v read from the table, so
+            // the next read must return at least maxId + 50. Conditional, so it never moves back.
+            long next = maxId + ALLOCATION_SIZE;
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequence[0] + " SET next_val = ? WHERE next_val < ?", next, next);
+            if (updated > 0) {
+                log.info("Advanced {} to {} past existing {} ids", sequence[0], next, sequence[1]);
+            }
+        }
+    }
+}
@@ -2,65 +2,138 @@ package com.dimec.inventory.config;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @Value("${jwt.secret}")
     private String secret;
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+    
+    // Built once: the key and the parser are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // Verified tokens keyed by SHA-256 digest, so repeat requests skip signature checks and JSON parsing
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    
+    private Timer cachedVerifications;
+    private Timer parsedVerifications;
+    
+    @PostConstruct
+    void init() {
+        cachedVerifications = Timer.builder("inventory.auth.jwt.verify")
+                .description("Bearer token verification in the authentication filter")
+                .tag("cache", "hit")
+                .register(meterRegistry);
+        parsedVerifications = Timer.builder("inventory.auth.jwt.verify")
+                .description("Bearer token verification in the authentication filter")
+                .tag("cache", "miss")
+                .register(meterRegistry);
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
     
-    public String generateToken(String email, String role) {
+    public String generateToken(Long userId, String email, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
         
         return Jwts.builder()
                 .subject(email)
+                .claim("uid", userId)
                 .claim("role", role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+    // Single verification per token: returns the claims the filter needs, or null if the token is invalid
+    public VerifiedToken verify(String token) {
+        long started = System.nanoTime();
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        VerifiedToken verified;
+        if (cached != null) {
+            verified = cached.isExpired(System.currentTimeMillis()) ? null : cached;
+            if (verified == null) {
+                verifiedTokens.remove(key, cached);
+            }
+            cachedVerifications.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        } else {
+            verified = parseAndCache(key, token);
+            parsedVerifications.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        return verified;
     }
     
-    public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("role", String.class);
+    private VerifiedToken parseAndCache(String key, String token) {
+        long now = System.currentTimeMillis();
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        Date expiresAt = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.get("uid", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                expiresAt != null ? expiresAt.getTime() : now + expiration);
+        
+        // Full until the next sweep: serve uncached rather than scan the map on the request path
+        if (verifiedTokens.size() < cacheMaxEntries) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
     }
     
-    public boolean validateToken(String token) {
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.cache.evict-interval-ms:60000}")
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(entry -> entry.isExpired(now));
+    }
+    
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,90 @@
+package com.dimec.inventory.config;
+
+import com.dimec.inventory.exception.QueryBudgetExceededException;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Counts SQL statements and entity loads on the current thread while a request is being
+// measured (see RequestMetricsFilter). Hibernate's Statistics are global, so concurrent requests
+// would blur together there; these hooks run on the thread that issues the statement.
+// In strict mode a request that goes over its handler's @QueryBudget fails at the first statement
+// past the budget, which is how the budget check in the benchmarks module runs the app.
+@Component
+public class PersistenceCounters implements StatementInspector, Interceptor, HibernatePropertiesCustomizer {
+    
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+    
+    @Value("${inventory.metrics.query-budget.strict:false}")
+    private boolean strict;
+    
+    public static class Counts {
+        private int statements;
+        private int entityLoads;
+        private String handler;
+        private int budget = -1;
+        private boolean exceeded;
+        
+        public int getStatements() { return statements; }
+        
+        public int getEntityLoads() { return entityLoads; }
+        
+        // -1 when the handler has no @QueryBudget
+        public int getBudget() { return budget; }
+        
+        void limit(String handler, int budget) {
+            this.handler = handler;
+            this.budget = budget;
+        }
+    }
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, this);
+    }
+    
+    public Counts start() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+    
+    public void stop() {
+        CURRENT.remove();
+    }
+    
+    public Counts current() {
+        return CURRENT.get();
+    }
+    
+    // Called once per statement Hibernate prepares; the SQL is passed through unchanged
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+            // Thrown once; statements run while the request fails (rollback, error handling) pass
+            if (strict && counts.budget >= 0 && counts.statements > counts.budget && !counts.exceeded) {
+                counts.exceeded = true;
+                throw new QueryBudgetExceededException(counts.handler, counts.budget);
+            }
+        }
+        return sql;
+    }
+    
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+        return false;
+    }
+}
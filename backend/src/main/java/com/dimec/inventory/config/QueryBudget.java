@@ -0,0 +1,15 @@
+package com.dimec.inventory.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Most SQL statements one request to the annotated handler may run. Budgets do not depend on
+// how many rows are stored: a handler whose statement count grows with the data has an N+1.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    
+    int value();
+}
@@ -0,0 +1,35 @@
+package com.dimec.inventory.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Hands the matched handler's @QueryBudget to the statement counter of the current request
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+    
+    @Autowired
+    private PersistenceCounters persistenceCounters;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PersistenceCounters.Counts counts = persistenceCounters.current();
+        if (counts != null && handler instanceof HandlerMethod method) {
+            QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                counts.limit(method.getBeanType().getSimpleName() + "." + method.getMethod().getName(), budget.value());
+            }
+        }
+        return true;
+    }
+}
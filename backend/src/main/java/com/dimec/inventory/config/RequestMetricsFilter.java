@@ -0,0 +1,100 @@
+package com.dimec.inventory.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Per controller method: latency histogram, SQL statements and entity loads per request.
+// Requests running more statements than their handler's @QueryBudget (or, for handlers without
+// one, inventory.metrics.statement-warn-threshold) are counted and logged with their handler, so
+// an N+1 regression shows up on the first request that hits it.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PersistenceCounters persistenceCounters;
+    
+    @Value("${inventory.metrics.statement-warn-threshold:20}")
+    private int statementWarnThreshold;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PersistenceCounters.Counts counts = persistenceCounters.start();
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            persistenceCounters.stop();
+            // Set by the DispatcherServlet; absent when security rejected the request or nothing matched
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+                record(request, response, handler, counts, System.nanoTime() - started);
+            }
+        }
+    }
+    
+    private void record(HttpServletRequest request, HttpServletResponse response, HandlerMethod handler,
+                        PersistenceCounters.Counts counts, long elapsedNanos) {
+        String name = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+        Timer.builder("inventory.http.handler")
+                .description("Request latency per controller method")
+                .tag("handler", name)
+                .tag("outcome", outcome(response.getStatus()))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsedNanos));
+        DistributionSummary.builder("inventory.http.handler.statements")
+                .description("SQL statements executed per request")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(counts.getStatements());
+        DistributionSummary.builder("inventory.http.handler.entity.loads")
+                .description("Entities loaded per request")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(counts.getEntityLoads());
+        
+        int limit = counts.getBudget() >= 0 ? counts.getBudget() : statementWarnThreshold;
+        if (counts.getStatements() > limit) {
+            meterRegistry.counter("inventory.http.handler.statements.exceeded", "handler", name).increment();
+            log.warn("{} {} ({}) ran {} SQL statements and loaded {} entities (limit {})",
+                    request.getMethod(), request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE), name,
+                    counts.getStatements(), counts.getEntityLoads(), limit);
+        }
+    }
+    
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+}
@@ -1,5 +1,8 @@
 package com.dimec.inventory.config;
 
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -24,12 +27,21 @@ import java.util.List;
 @EnableMethodSecurity
 public class SecurityConfig {
     
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+    
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
     
+    @Value("${inventory.auth.bcrypt.cost:10}")
+    private int bcryptCost;
+    
+    // When set, the cost is measured at startup as the highest one hashing within this many ms
+    @Value("${inventory.auth.bcrypt.target-ms:0}")
+    private long bcryptTargetMs;
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -37,9 +49,12 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of SSE and streaming responses; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
                         .requestMatchers("/products/**", "/categories/**", "/suppliers/**", 
-                                "/issuances/**", "/dashboard/**", "/reports/**").authenticated()
+                                "/issuances/**", "/dashboard/**", "/reports/**", "/events").authenticated()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -62,6 +77,8 @@ public class SecurityConfig {
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int cost = bcryptTargetMs > 0 ? BCryptCost.calibrate(bcryptTargetMs) : bcryptCost;
+        log.info("Hashing passwords with BCrypt cost {}", cost);
+        return new BCryptPasswordEncoder(cost);
     }
 }
@@ -0,0 +1,18 @@
+package com.dimec.inventory.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Claims the filter needs from an already signature-checked token
+@Data
+@AllArgsConstructor
+public class VerifiedToken {
+    private Long userId;
+    private String email;
+    private String role;
+    private long expiresAtMillis;
+    
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,28 @@
+package com.dimec.inventory.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Compact binary encodings for scanners and sync jobs: Accept: application/x-jackson-smile or
+// application/cbor. Both reuse the JSON mapping (same field names, date handling and modules),
+// so DTOs need no extra schema. JSON stays the default: Spring Boot keeps these converters
+// after the JSON one, so Accept: */* or no Accept still gets JSON.
+@Configuration
+public class WireFormatConfig {
+    
+    // The Boot builder is prototype scoped and carries the spring.jackson.* settings
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
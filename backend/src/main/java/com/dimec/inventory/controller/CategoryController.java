@@ -1,11 +1,14 @@
 package com.dimec.inventory.controller;
 
+import com.dimec.inventory.config.QueryBudget;
 import com.dimec.inventory.model.Category;
 import com.dimec.inventory.service.CategoryService;
+import com.dimec.inventory.service.TableVersions;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,21 +19,30 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private TableVersions tableVersions;
+    
+    @QueryBudget(1)
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.CATEGORIES),
+                categoryService::getAllCategories);
     }
     
+    @QueryBudget(1)
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.CATEGORIES),
+                () -> categoryService.getCategoryById(id));
     }
     
+    @QueryBudget(4)
     @PostMapping
     public ResponseEntity<Category> createCategory(@Valid @RequestBody Category category) {
         return ResponseEntity.ok(categoryService.createCategory(category));
     }
     
+    @QueryBudget(5)
     @PutMapping("/{id}")
     public ResponseEntity<Category> updateCategory(
             @PathVariable Long id,
@@ -38,6 +50,7 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.updateCategory(id, category));
     }
     
+    @QueryBudget(13)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
         categoryService.deleteCategory(id);
@@ -1,12 +1,15 @@
 package com.dimec.inventory.controller;
 
+import com.dimec.inventory.config.QueryBudget;
 import com.dimec.inventory.dto.DashboardStats;
 import com.dimec.inventory.service.DashboardService;
+import com.dimec.inventory.service.TableVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/dashboard")
@@ -15,8 +18,13 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
     
+    @Autowired
+    private TableVersions tableVersions;
+    
+    @QueryBudget(1)
     @GetMapping("/stats")
-    public ResponseEntity<DashboardStats> getDashboardStats() {
-        return ResponseEntity.ok(dashboardService.getDashboardStats());
+    public ResponseEntity<DashboardStats> getDashboardStats(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.DASHBOARD),
+                dashboardService::getDashboardStats);
     }
 }
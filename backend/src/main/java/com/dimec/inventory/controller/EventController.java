@@ -0,0 +1,23 @@
+package com.dimec.inventory.controller;
+
+import com.dimec.inventory.service.LiveEventHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/events")
+public class EventController {
+    
+    @Autowired
+    private LiveEventHub liveEventHub;
+    
+    // Starts with a "dashboard" snapshot, then "stock", "low-stock" and "dashboard-delta" events
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return liveEventHub.subscribe();
+    }
+}
@@ -0,0 +1,40 @@
+package com.dimec.inventory.controller;
+
+import com.dimec.inventory.dto.CreateIssuanceRequest;
+import com.dimec.inventory.dto.IssuanceCommandStatus;
+import com.dimec.inventory.service.IssuanceCommandQueue;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+// Async counterpart of POST /issuances: 202 with a command id, then poll the status URL
+@RestController
+@RequestMapping("/issuances/async")
+@ConditionalOnProperty(name = "inventory.issuance.async.enabled", havingValue = "true")
+public class IssuanceCommandController {
+    
+    @Autowired
+    private IssuanceCommandQueue issuanceCommandQueue;
+    
+    @PostMapping
+    public ResponseEntity<IssuanceCommandStatus> submitIssuance(@Valid @RequestBody CreateIssuanceRequest request) {
+        IssuanceCommandStatus status = issuanceCommandQueue.submit(request);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{commandId}")
+                .buildAndExpand(status.getCommandId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+    
+    @GetMapping("/{commandId}")
+    public ResponseEntity<IssuanceCommandStatus> getStatus(@PathVariable String commandId) {
+        return ResponseEntity.ok(issuanceCommandQueue.getStatus(commandId)
+                .orElseThrow(() -> new EntityNotFoundException("Issuance command not found")));
+    }
+}
@@ -1,17 +1,32 @@
 package com.dimec.inventory.controller;
 
+import com.dimec.inventory.config.QueryBudget;
+import com.dimec.inventory.dto.BatchIssuanceRequest;
+import com.dimec.inventory.dto.BatchIssuanceResponse;
 import com.dimec.inventory.dto.CreateIssuanceRequest;
+import com.dimec.inventory.dto.ExportFormat;
 import com.dimec.inventory.dto.IssuanceRecordDTO;
 import com.dimec.inventory.model.IssuanceRecord;
+import com.dimec.inventory.service.IdempotentRequests;
+import com.dimec.inventory.service.IssuanceExportService;
 import com.dimec.inventory.service.IssuanceService;
+import com.dimec.inventory.service.TableVersions;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/issuances")
@@ -20,28 +35,128 @@ public class IssuanceController {
     @Autowired
     private IssuanceService issuanceService;
     
+    @Autowired
+    private IssuanceExportService issuanceExportService;
+    
+    @Autowired
+    private TableVersions tableVersions;
+    
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+    
+    @QueryBudget(1)
     @GetMapping
-    public ResponseEntity<List<IssuanceRecordDTO>> getAllIssuances() {
-        return ResponseEntity.ok(issuanceService.getAllIssuances());
+    public ResponseEntity<List<IssuanceRecordDTO>> getAllIssuances(
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.ISSUANCES),
+                () -> limit == null ? issuanceService.getAllIssuances() : issuanceService.getRecentIssuances(limit));
     }
     
+    @QueryBudget(1)
     @GetMapping("/{id}")
-    public ResponseEntity<IssuanceRecordDTO> getIssuanceById(@PathVariable Long id) {
-        return ResponseEntity.ok(issuanceService.getIssuanceById(id));
+    public ResponseEntity<IssuanceRecordDTO> getIssuanceById(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.ISSUANCES),
+                () -> issuanceService.getIssuanceById(id));
     }
     
+    @QueryBudget(1)
     @GetMapping("/date-range")
     public ResponseEntity<List<IssuanceRecordDTO>> getIssuancesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return ResponseEntity.ok(issuanceService.getIssuancesByDateRange(startDate, endDate));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.ISSUANCES),
+                () -> issuanceService.getIssuancesByDateRange(startDate, endDate));
     }
     
+    // No @QueryBudget: the export's queries run while the body streams, after the handler has
+    // returned, so the request's statement count never sees them. The query budget tests leave
+    // it out.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportIssuances(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        if ((startDate == null) != (endDate == null)) {
+            throw new IllegalArgumentException("Both startDate and endDate are required for a date range");
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            issuanceExportService.export(exportFormat, startDate, endDate, target);
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"issuances." + exportFormat.getExtension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
+    // Accept-Encoding codings with q-values (RFC 9110 12.5.3): an explicit gzip entry wins over *,
+    // and q=0 means "not acceptable". A malformed q-value counts as 0.
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+    
+    // A retry carrying the same Idempotency-Key gets the first response back instead of issuing twice
+    @QueryBudget(9)
     @PostMapping
-    public ResponseEntity<IssuanceRecordDTO> createIssuance(@Valid @RequestBody CreateIssuanceRequest request) {
-        return ResponseEntity.ok(issuanceService.createIssuance(request));
+    public ResponseEntity<IssuanceRecordDTO> createIssuance(
+            @Valid @RequestBody CreateIssuanceRequest request,
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return idempotentRequests.execute("POST /issuances", idempotencyKey, request,
+                () -> ResponseEntity.ok(issuanceService.createIssuance(request)));
+    }
+    
+    // For a batch on one product; each further product adds its own stock and rollup updates
+    @QueryBudget(8)
+    @PostMapping("/batch")
+    public ResponseEntity<BatchIssuanceResponse> createIssuanceBatch(@Valid @RequestBody BatchIssuanceRequest request) {
+        BatchIssuanceResponse response = issuanceService.createIssuanceBatch(request);
+        return ResponseEntity.status(response.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT).body(response);
     }
     
+    @QueryBudget(9)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteIssuance(@PathVariable Long id) {
         issuanceService.deleteIssuance(id);
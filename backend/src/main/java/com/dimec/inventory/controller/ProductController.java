@@ -1,15 +1,27 @@
 package com.dimec.inventory.controller;
 
+import com.dimec.inventory.config.QueryBudget;
 import com.dimec.inventory.dto.CreateProductRequest;
+import com.dimec.inventory.dto.CursorPage;
+import com.dimec.inventory.dto.ProductChanges;
 import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.dto.ProductSuggestion;
+import com.dimec.inventory.dto.StockPosition;
 import com.dimec.inventory.dto.UpdateProductRequest;
 import com.dimec.inventory.model.Product;
+import com.dimec.inventory.model.StockMovement;
+import com.dimec.inventory.service.IdempotentRequests;
 import com.dimec.inventory.service.ProductService;
+import com.dimec.inventory.service.StockLedgerService;
+import com.dimec.inventory.service.TableVersions;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,31 +31,106 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    @Autowired
+    private TableVersions tableVersions;
+    
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+    
+    @QueryBudget(1)
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<CursorPage<ProductDTO>> getProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, productsETag(),
+                () -> productService.getProductPage(after, limit));
     }
     
+    // Full catalog in one response; callers must opt in explicitly with ?all=true
+    @QueryBudget(1)
+    @GetMapping(params = "all=true")
+    public ResponseEntity<List<ProductDTO>> getAllProducts(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, productsETag(), productService::getAllProducts);
+    }
+    
+    @QueryBudget(1)
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, productsETag(), () -> productService.getProductById(id));
     }
     
+    @QueryBudget(1)
     @GetMapping("/low-stock")
-    public ResponseEntity<List<ProductDTO>> getLowStockProducts() {
-        return ResponseEntity.ok(productService.getLowStockProducts());
+    public ResponseEntity<List<ProductDTO>> getLowStockProducts(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, productsETag(), productService::getLowStockProducts);
+    }
+    
+    // The n products furthest below their reorder level
+    @QueryBudget(1)
+    @GetMapping("/low-stock/top")
+    public ResponseEntity<List<ProductDTO>> getMostCriticalProducts(
+            @RequestParam(required = false) Integer n,
+            WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, productsETag(), () -> productService.getMostCriticalProducts(n));
+    }
+    
+    // Delta sync: pass the returned version as `since` on the next call (0 for a full sync).
+    // No ETag here: the high-water mark can move after the table version has been bumped.
+    @QueryBudget(2)
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getChanges(since, limit));
+    }
+    
+    // Stock ledger, newest first; pass the returned cursor as `before` for older movements
+    @QueryBudget(2)
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<CursorPage<StockMovement>> getStockMovements(
+            @PathVariable Long id,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(stockLedgerService.getMovements(id, before, limit));
     }
     
+    // Ledger quantity now, or at a past moment with ?asOf=2025-01-31T18:00:00
+    @QueryBudget(4)
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockPosition> getStockPosition(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(stockLedgerService.getPosition(id, asOf));
+    }
+    
+    @QueryBudget(1)
     @GetMapping("/search")
     public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String term) {
         return ResponseEntity.ok(productService.searchProducts(term));
     }
     
+    @QueryBudget(0)
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<ProductSuggestion>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.autocomplete(prefix, limit));
+    }
+    
+    @QueryBudget(6)
     @PostMapping
-    public ResponseEntity<ProductDTO> createProduct(@Valid @RequestBody CreateProductRequest request) {
-        return ResponseEntity.ok(productService.createProduct(request));
+    public ResponseEntity<ProductDTO> createProduct(
+            @Valid @RequestBody CreateProductRequest request,
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return idempotentRequests.execute("POST /products", idempotencyKey, request,
+                () -> ResponseEntity.ok(productService.createProduct(request)));
     }
     
+    @QueryBudget(8)
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(
             @PathVariable Long id,
@@ -51,6 +138,13 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateProduct(id, request));
     }
     
+    // Product rows embed category and supplier names
+    private String productsETag() {
+        return tableVersions.etag(TableVersions.Table.PRODUCTS,
+                TableVersions.Table.CATEGORIES, TableVersions.Table.SUPPLIERS);
+    }
+    
+    @QueryBudget(10)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
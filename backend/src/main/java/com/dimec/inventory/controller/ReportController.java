@@ -0,0 +1,40 @@
+package com.dimec.inventory.controller;
+
+import com.dimec.inventory.dto.IssuanceReportGrouping;
+import com.dimec.inventory.dto.IssuanceReportRow;
+import com.dimec.inventory.service.IssuanceReportService;
+import com.dimec.inventory.service.TableVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+    
+    @Autowired
+    private IssuanceReportService issuanceReportService;
+    
+    @Autowired
+    private TableVersions tableVersions;
+    
+    // Issuance totals over a date range, grouped by day, product or category
+    @GetMapping("/issuances")
+    public ResponseEntity<List<IssuanceReportRow>> getIssuanceReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "day") String groupBy,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long productId,
+            WebRequest request) {
+        IssuanceReportGrouping grouping = IssuanceReportGrouping.from(groupBy);
+        String etag = tableVersions.etag(TableVersions.Table.ISSUANCES, TableVersions.Table.CATEGORIES);
+        return ConditionalResponses.ifNoneMatch(request, etag,
+                () -> issuanceReportService.getReport(startDate, endDate, grouping, categoryId, productId));
+    }
+}
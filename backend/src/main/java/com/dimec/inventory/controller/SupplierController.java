@@ -1,11 +1,14 @@
 package com.dimec.inventory.controller;
 
+import com.dimec.inventory.config.QueryBudget;
 import com.dimec.inventory.model.Supplier;
 import com.dimec.inventory.service.SupplierService;
+import com.dimec.inventory.service.TableVersions;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,21 +19,30 @@ public class SupplierController {
     @Autowired
     private SupplierService supplierService;
     
+    @Autowired
+    private TableVersions tableVersions;
+    
+    @QueryBudget(1)
     @GetMapping
-    public ResponseEntity<List<Supplier>> getAllSuppliers() {
-        return ResponseEntity.ok(supplierService.getAllSuppliers());
+    public ResponseEntity<List<Supplier>> getAllSuppliers(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.SUPPLIERS),
+                supplierService::getAllSuppliers);
     }
     
+    @QueryBudget(1)
     @GetMapping("/{id}")
-    public ResponseEntity<Supplier> getSupplierById(@PathVariable Long id) {
-        return ResponseEntity.ok(supplierService.getSupplierById(id));
+    public ResponseEntity<Supplier> getSupplierById(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, tableVersions.etag(TableVersions.Table.SUPPLIERS),
+                () -> supplierService.getSupplierById(id));
     }
     
+    @QueryBudget(4)
     @PostMapping
     public ResponseEntity<Supplier> createSupplier(@Valid @RequestBody Supplier supplier) {
         return ResponseEntity.ok(supplierService.createSupplier(supplier));
     }
     
+    @QueryBudget(5)
     @PutMapping("/{id}")
     public ResponseEntity<Supplier> updateSupplier(
             @PathVariable Long id,
@@ -38,6 +50,7 @@ public class SupplierController {
         return ResponseEntity.ok(supplierService.updateSupplier(id, supplier));
     }
     
+    @QueryBudget(13)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteSupplier(@PathVariable Long id) {
         supplierService.deleteSupplier(id);
@@ -0,0 +1,22 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIssuanceLineResult {
+    
+    public enum Status {
+        ISSUED,
+        REJECTED,
+        NOT_APPLIED // valid line rolled back because another line failed an all-or-nothing batch
+    }
+    
+    private int index;
+    private Status status;
+    private IssuanceRecordDTO issuance;
+    private String message;
+}
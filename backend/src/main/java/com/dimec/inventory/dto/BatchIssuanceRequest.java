@@ -0,0 +1,20 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIssuanceRequest {
+    
+    // Lines are validated individually so best-effort batches can report per-line errors
+    @NotEmpty(message = "At least one issuance line is required")
+    private List<CreateIssuanceRequest> lines;
+    
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+}
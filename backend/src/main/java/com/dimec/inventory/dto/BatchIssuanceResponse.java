@@ -0,0 +1,18 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIssuanceResponse {
+    private BatchMode mode;
+    private boolean applied;
+    private int issued;
+    private int rejected;
+    private List<BatchIssuanceLineResult> results;
+}
@@ -0,0 +1,6 @@
+package com.dimec.inventory.dto;
+
+public enum BatchMode {
+    ALL_OR_NOTHING, // any rejected line rolls back the whole batch
+    BEST_EFFORT     // valid lines are committed, rejected lines are reported
+}
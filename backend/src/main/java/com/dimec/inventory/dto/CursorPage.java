@@ -0,0 +1,17 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String next; // opaque cursor for the following page, null on the last page
+    private int limit;
+    private boolean hasMore;
+}
@@ -16,4 +16,7 @@ public class DashboardStats {
     private Long lowStockProducts;
     private BigDecimal totalInventoryValue;
     private Long totalIssuances;
+    // Change version of the counters: a snapshot includes every delta up to it, and each
+    // dashboard-delta carries the version its transaction moved the counters to
+    private Long version;
 }
@@ -0,0 +1,27 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssuanceCommandStatus {
+    
+    public enum Status {
+        QUEUED,
+        ISSUED,
+        REJECTED, // insufficient stock or unknown product
+        FAILED
+    }
+    
+    private String commandId;
+    private Status status;
+    private IssuanceRecordDTO issuance;
+    private String message;
+    private Instant submittedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,16 @@
+package com.dimec.inventory.dto;
+
+public enum IssuanceReportGrouping {
+    DAY,
+    PRODUCT,
+    CATEGORY;
+    
+    public static IssuanceReportGrouping from(String value) {
+        for (IssuanceReportGrouping grouping : values()) {
+            if (grouping.name().equalsIgnoreCase(value)) {
+                return grouping;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported groupBy: " + value + ". Use day, product or category");
+    }
+}
@@ -0,0 +1,39 @@
+package com.dimec.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One aggregated report row; only the fields of the requested grouping are set
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IssuanceReportRow {
+    private LocalDate issueDate;
+    private Long productId;
+    private String productName;
+    private Long categoryId;
+    private String categoryName;
+    private Long issuanceCount;
+    private Long totalQuantity;
+    private BigDecimal totalValue;
+    
+    public IssuanceReportRow(LocalDate issueDate, Long issuanceCount, Long totalQuantity, BigDecimal totalValue) {
+        this(issueDate, null, null, null, null, issuanceCount, totalQuantity, totalValue);
+    }
+    
+    public IssuanceReportRow(Long categoryId, String categoryName,
+                             Long issuanceCount, Long totalQuantity, BigDecimal totalValue) {
+        this(null, null, null, categoryId, categoryName, issuanceCount, totalQuantity, totalValue);
+    }
+    
+    public IssuanceReportRow(Long productId, String productName, Long categoryId, String categoryName,
+                             Long issuanceCount, Long totalQuantity, BigDecimal totalValue) {
+        this(null, productId, productName, categoryId, categoryName, issuanceCount, totalQuantity, totalValue);
+    }
+}
@@ -0,0 +1,17 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChanges {
+    private List<ProductDTO> changed;
+    private List<Long> deleted;
+    private long version; // pass as `since` on the next call
+    private boolean hasMore; // more changes are ready; call again right away
+}
@@ -21,4 +21,5 @@ public class ProductDTO {
     private Integer reorderLevel;
     private String description;
     private boolean lowStock;
+    private Long changeVersion;
 }
@@ -0,0 +1,22 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// A product's name and stock level as read under its row lock before a stock change
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStock {
+    private String name;
+    private Integer quantity;
+    private Integer reorderLevel;
+    private BigDecimal unitPrice;
+    
+    public StockLevel toLevel() {
+        return new StockLevel(quantity, reorderLevel, unitPrice);
+    }
+}
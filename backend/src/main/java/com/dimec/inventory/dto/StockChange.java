@@ -0,0 +1,15 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChange {
+    private Long productId;
+    private String productName;
+    private StockLevel before;
+    private StockLevel after;
+}
@@ -0,0 +1,18 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockEvent {
+    private Long productId;
+    private Integer quantity; // null once the product is deleted
+    private Integer reorderLevel;
+    private boolean lowStock;
+    // The product's change version: later changes to the same product carry higher ones, so
+    // clients drop an event that arrives after a newer one
+    private Long version;
+}
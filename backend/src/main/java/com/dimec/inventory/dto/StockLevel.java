@@ -0,0 +1,32 @@
+package com.dimec.inventory.dto;
+
+import com.dimec.inventory.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevel {
+    private Integer quantity;
+    private Integer reorderLevel;
+    private BigDecimal unitPrice;
+    
+    public static StockLevel of(Product product) {
+        return new StockLevel(product.getQuantity(), product.getReorderLevel(), product.getUnitPrice());
+    }
+    
+    public boolean isLowStock() {
+        return quantity <= reorderLevel;
+    }
+    
+    public BigDecimal getValue() {
+        if (unitPrice == null || quantity == null) {
+            return BigDecimal.ZERO;
+        }
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,37 @@
+package com.dimec.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMutationResult {
+    
+    public enum Status {
+        APPLIED,
+        INSUFFICIENT_STOCK,
+        PRODUCT_NOT_FOUND
+    }
+    
+    private Status status;
+    private StockChange change; // set when applied
+    private Integer available;  // current quantity when the change could not be applied
+    
+    public static StockMutationResult applied(StockChange change) {
+        return new StockMutationResult(Status.APPLIED, change, change.getAfter().getQuantity());
+    }
+    
+    public static StockMutationResult insufficient(int available) {
+        return new StockMutationResult(Status.INSUFFICIENT_STOCK, null, available);
+    }
+    
+    public static StockMutationResult notFound() {
+        return new StockMutationResult(Status.PRODUCT_NOT_FOUND, null, null);
+    }
+    
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+}
@@ -0,0 +1,22 @@
+package com.dimec.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Ledger quantity of a product at a point in time, derived from the latest snapshot plus the movements after it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockPosition {
+    private Long productId;
+    private LocalDateTime asOf;
+    private Long quantity;
+    private LocalDateTime snapshotAsOf; // null when no snapshot precedes asOf
+    private Long movementsAfterSnapshot;
+    private Integer productQuantity; // current Product.quantity, only for current positions
+}
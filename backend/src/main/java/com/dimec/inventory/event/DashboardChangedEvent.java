@@ -0,0 +1,14 @@
+package com.dimec.inventory.event;
+
+import com.dimec.inventory.dto.DashboardStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published by DashboardService in the writing transaction: either a delta to add to the
+// counters, or (after a recount) the full set of counters replacing them
+@Data
+@AllArgsConstructor
+public class DashboardChangedEvent {
+    private DashboardStats stats;
+    private boolean delta;
+}
@@ -0,0 +1,29 @@
+package com.dimec.inventory.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published by the services inside the writing transaction; listeners that keep derived
+// state (search index, caches) consume it with @TransactionalEventListener after commit
+@Data
+@AllArgsConstructor
+public class InventoryChangedEvent {
+    
+    public enum Entity {
+        PRODUCT,
+        CATEGORY,
+        SUPPLIER,
+        ISSUANCE
+    }
+    
+    public enum Action {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STOCK_CHANGED // product quantity only, through StockService
+    }
+    
+    private Entity entity;
+    private Long id;
+    private Action action;
+}
@@ -0,0 +1,16 @@
+package com.dimec.inventory.event;
+
+import com.dimec.inventory.dto.StockLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Quantity, reorder level or price of a product changed; before is null on create, after is null on delete
+@Data
+@AllArgsConstructor
+public class StockLevelChangedEvent {
+    private Long productId;
+    private StockLevel before;
+    private StockLevel after;
+    // Change version the product moved to (its tombstone's on delete), taken under the row lock
+    private Long version;
+}
@@ -0,0 +1,19 @@
+package com.dimec.inventory.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    
+    private final Long productId;
+    private final int available;
+    private final int requested;
+    
+    public InsufficientStockException(Long productId, int available, int requested) {
+        super("Insufficient stock. Available: " + available);
+        this.productId = productId;
+        this.available = available;
+        this.requested = requested;
+    }
+    
+    public Long getProductId() { return productId; }
+    public int getAvailable() { return available; }
+    public int getRequested() { return requested; }
+}
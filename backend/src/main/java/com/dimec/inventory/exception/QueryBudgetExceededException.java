@@ -0,0 +1,8 @@
+package com.dimec.inventory.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    
+    public QueryBudgetExceededException(String handler, int budget) {
+        super(handler + " exceeded its budget of " + budget + " SQL statements");
+    }
+}
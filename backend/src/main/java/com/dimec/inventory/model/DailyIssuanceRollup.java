@@ -0,0 +1,42 @@
+package com.dimec.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Issuance totals per day and product, maintained in the same transaction as each issuance write.
+// Reports read these instead of the raw records; the key doubles as the date-range index.
+@Entity
+@Table(name = "daily_issuance_rollup", indexes = @Index(name = "idx_rollup_product", columnList = "product_id"))
+@IdClass(DailyIssuanceRollupId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyIssuanceRollup {
+    
+    @Id
+    @Column(name = "issue_date")
+    private LocalDate issueDate;
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    // The product's current category; moved along when the product is re-categorized
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+    
+    @Column(name = "issuance_count", nullable = false)
+    private Long issuanceCount = 0L;
+    
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity = 0L;
+    
+    // Quantity times the unit price stored on each issuance record
+    @Column(name = "total_value", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalValue = BigDecimal.ZERO;
+}
@@ -0,0 +1,16 @@
+package com.dimec.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyIssuanceRollupId implements Serializable {
+    private LocalDate issueDate;
+    private Long productId;
+}
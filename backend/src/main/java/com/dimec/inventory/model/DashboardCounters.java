@@ -0,0 +1,45 @@
+package com.dimec.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "dashboard_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardCounters {
+    
+    // Single materialized row, updated in the same transaction as every inventory write
+    public static final Long SINGLETON_ID = 1L;
+    
+    @Id
+    private Long id = SINGLETON_ID;
+    
+    @Column(nullable = false)
+    private Long totalProducts = 0L;
+    
+    @Column(nullable = false)
+    private Long totalCategories = 0L;
+    
+    @Column(nullable = false)
+    private Long totalSuppliers = 0L;
+    
+    @Column(nullable = false)
+    private Long lowStockProducts = 0L;
+    
+    @Column(nullable = false)
+    private Long totalIssuances = 0L;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalInventoryValue = BigDecimal.ZERO;
+    
+    // Incremented under the row lock by every delta and by a recount that changed the counters,
+    // so live clients can tell which deltas a snapshot already includes
+    @Column(nullable = false)
+    private Long changeVersion = 0L;
+}
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
@@ -17,8 +18,10 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class IssuanceRecord {
     
+    // Pooled sequence (table-emulated on MySQL) instead of IDENTITY, which disables JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "issuance_seq")
+    @SequenceGenerator(name = "issuance_seq", sequenceName = "issuance_records_seq", allocationSize = 50)
     @Column(name = "issuance_id")
     private Long issuanceId;
     
@@ -46,4 +49,10 @@ public class IssuanceRecord {
     
     @Column(length = 500)
     private String purpose;
+    
+    // Product unit price when issued, so reports value the issuance as it was made and a delete
+    // takes back exactly what was added. Null only for rows written before the column existed,
+    // which IssuanceReportService prices at startup.
+    @Column(name = "unit_price", precision = 10, scale = 2)
+    private BigDecimal unitPrice;
 }
@@ -13,7 +13,10 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_product_change_version", columnList = "change_version"),
+        @Index(name = "idx_product_stock_margin", columnList = "stock_margin, product_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,10 +56,25 @@ public class Product {
     @Column(length = 1000)
     private String description;
     
+    // quantity - reorderLevel, kept in sync on every write so low-stock lookups are an index
+    // range scan (stock_margin <= 0) instead of comparing two columns on every row
+    @Column(name = "stock_margin")
+    private Integer stockMargin;
+    
+    // Position in the change feed: set from ProductVersions on every write, stock updates included
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
     @JsonIgnore
     private List<IssuanceRecord> issuanceRecords;
     
+    @PrePersist
+    @PreUpdate
+    void updateStockMargin() {
+        stockMargin = quantity - reorderLevel;
+    }
+    
     @Transient
     public boolean isLowStock() {
         return quantity <= reorderLevel;
@@ -0,0 +1,29 @@
+package com.dimec.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Marks a deleted product in the change feed, so delta-syncing clients learn to drop it
+@Entity
+@Table(name = "product_tombstones",
+        indexes = @Index(name = "idx_tombstone_change_version", columnList = "change_version"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTombstone {
+    
+    // Product ids come from IDENTITY and are never reused
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+    
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,59 @@
+package com.dimec.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Append-only stock ledger: one row per quantity change, written in the same transaction as the
+// change itself. Rows are never updated or deleted, including after the product is removed.
+@Entity
+@Table(name = "stock_movements",
+        indexes = @Index(name = "idx_movement_product_time", columnList = "product_id, created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+    
+    public enum Type {
+        OPENING,    // balance of a product that existed before the ledger
+        ISSUANCE,
+        REVERSAL,   // issuance deleted, stock returned
+        RECEIPT,
+        ADJUSTMENT  // manual correction, e.g. a product update that replaces the quantity
+    }
+    
+    // Pooled sequence so multi-line writes go out as JDBC batches, as for issuance records
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
+    @Column(name = "movement_id")
+    private Long movementId;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+    
+    // Signed: negative for stock leaving
+    @Column(nullable = false)
+    private Integer quantityChange;
+    
+    @Column(name = "issuance_id")
+    private Long issuanceId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public StockMovement(Long productId, Type type, int quantityChange, Long issuanceId) {
+        this.productId = productId;
+        this.type = type;
+        this.quantityChange = quantityChange;
+        this.issuanceId = issuanceId;
+        this.createdAt = LocalDateTime.now();
+    }
+}
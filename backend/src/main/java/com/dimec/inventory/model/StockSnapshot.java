@@ -0,0 +1,30 @@
+package com.dimec.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Ledger balance of a product as of a point in time: the sum of all its movements created at or
+// before asOf. Quantities at any later time are this plus the movements after it.
+@Entity
+@Table(name = "stock_snapshots")
+@IdClass(StockSnapshotId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshot {
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Id
+    @Column(name = "as_of")
+    private LocalDateTime asOf;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+}
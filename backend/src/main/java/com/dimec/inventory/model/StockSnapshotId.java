@@ -0,0 +1,16 @@
+package com.dimec.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshotId implements Serializable {
+    private Long productId;
+    private LocalDateTime asOf;
+}
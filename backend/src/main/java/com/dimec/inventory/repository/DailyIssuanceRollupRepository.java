@@ -0,0 +1,103 @@
+package com.dimec.inventory.repository;
+
+import com.dimec.inventory.dto.IssuanceReportRow;
+import com.dimec.inventory.model.DailyIssuanceRollup;
+import com.dimec.inventory.model.DailyIssuanceRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyIssuanceRollupRepository extends JpaRepository<DailyIssuanceRollup, DailyIssuanceRollupId> {
+    
+    // Incremental maintenance: callers hold the product row lock (taken by the stock update), so
+    // the update-else-insert pair cannot race with another writer for the same product and day
+    @Modifying
+    @Query("UPDATE DailyIssuanceRollup r SET "
+            + "r.issuanceCount = r.issuanceCount + :count, "
+            + "r.totalQuantity = r.totalQuantity + :quantity, "
+            + "r.totalValue = r.totalValue + :value "
+            + "WHERE r.issueDate = :issueDate AND r.productId = :productId")
+    int applyDelta(LocalDate issueDate, Long productId, long count, long quantity, BigDecimal value);
+    
+    @Modifying
+    @Query("INSERT INTO DailyIssuanceRollup (issueDate, productId, categoryId, issuanceCount, totalQuantity, totalValue) "
+            + "SELECT :issueDate, p.productId, p.category.categoryId, :count, cast(:quantity as Long), "
+            + "cast(:value as BigDecimal) "
+            + "FROM Product p WHERE p.productId = :productId")
+    int insertFor(LocalDate issueDate, Long productId, long count, long quantity, BigDecimal value);
+    
+    @Modifying
+    @Query("DELETE FROM DailyIssuanceRollup r "
+            + "WHERE r.issueDate = :issueDate AND r.productId = :productId AND r.issuanceCount <= 0")
+    int deleteIfEmpty(LocalDate issueDate, Long productId);
+    
+    // Backfill: recompute a date range from the raw records, valued at the price stored on each.
+    // Records inserted without one (bulk loads running alongside the startup backfill) count at
+    // their product's current price, the same price backfillUnitPrices stores.
+    @Modifying
+    @Query("DELETE FROM DailyIssuanceRollup r WHERE r.issueDate BETWEEN :startDate AND :endDate")
+    int deleteRange(LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("INSERT INTO DailyIssuanceRollup (issueDate, productId, categoryId, issuanceCount, totalQuantity, totalValue) "
+            + "SELECT ir.issueDate, p.productId, p.category.categoryId, count(ir), sum(ir.quantityIssued), "
+            + "sum(ir.quantityIssued * coalesce(ir.unitPrice, p.unitPrice)) "
+            + "FROM IssuanceRecord ir JOIN ir.product p "
+            + "WHERE ir.issueDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY ir.issueDate, p.productId, p.category.categoryId")
+    int insertRangeFromRecords(LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM DailyIssuanceRollup r WHERE r.productId = :productId")
+    int deleteByProductId(Long productId);
+    
+    // Rows whose product went away in a cascading category or supplier delete
+    @Modifying
+    @Query("DELETE FROM DailyIssuanceRollup r WHERE NOT EXISTS "
+            + "(SELECT 1 FROM Product p WHERE p.productId = r.productId)")
+    int deleteOrphans();
+    
+    @Modifying
+    @Query("UPDATE DailyIssuanceRollup r SET r.categoryId = :categoryId WHERE r.productId = :productId")
+    int moveToCategory(Long productId, Long categoryId);
+    
+    @Query("SELECT new com.dimec.inventory.dto.IssuanceReportRow("
+            + "r.issueDate, sum(r.issuanceCount), sum(r.totalQuantity), sum(r.totalValue)) "
+            + "FROM DailyIssuanceRollup r "
+            + "WHERE r.issueDate BETWEEN :startDate AND :endDate "
+            + "AND (:categoryId IS NULL OR r.categoryId = :categoryId) "
+            + "AND (:productId IS NULL OR r.productId = :productId) "
+            + "GROUP BY r.issueDate ORDER BY r.issueDate")
+    List<IssuanceReportRow> totalsByDay(LocalDate startDate, LocalDate endDate, Long categoryId, Long productId);
+    
+    @Query("SELECT new com.dimec.inventory.dto.IssuanceReportRow("
+            + "p.productId, p.name, c.categoryId, c.name, "
+            + "sum(r.issuanceCount), sum(r.totalQuantity), sum(r.totalValue)) "
+            + "FROM DailyIssuanceRollup r, Product p JOIN p.category c "
+            + "WHERE p.productId = r.productId AND r.issueDate BETWEEN :startDate AND :endDate "
+            + "AND (:categoryId IS NULL OR r.categoryId = :categoryId) "
+            + "AND (:productId IS NULL OR r.productId = :productId) "
+            + "GROUP BY p.productId, p.name, c.categoryId, c.name ORDER BY sum(r.totalQuantity) DESC, p.productId")
+    List<IssuanceReportRow> totalsByProduct(LocalDate startDate, LocalDate endDate, Long categoryId, Long productId);
+    
+    @Query("SELECT new com.dimec.inventory.dto.IssuanceReportRow("
+            + "c.categoryId, c.name, sum(r.issuanceCount), sum(r.totalQuantity), sum(r.totalValue)) "
+            + "FROM DailyIssuanceRollup r, Category c "
+            + "WHERE c.categoryId = r.categoryId AND r.issueDate BETWEEN :startDate AND :endDate "
+            + "AND (:categoryId IS NULL OR r.categoryId = :categoryId) "
+            + "AND (:productId IS NULL OR r.productId = :productId) "
+            + "GROUP BY c.categoryId, c.name ORDER BY sum(r.totalQuantity) DESC, c.categoryId")
+    List<IssuanceReportRow> totalsByCategory(LocalDate startDate, LocalDate endDate, Long categoryId, Long productId);
+    
+    @Query("SELECT min(ir.issueDate) FROM IssuanceRecord ir")
+    LocalDate findFirstIssueDate();
+    
+    @Query("SELECT max(ir.issueDate) FROM IssuanceRecord ir")
+    LocalDate findLastIssueDate();
+}
@@ -0,0 +1,38 @@
+package com.dimec.inventory.repository;
+
+import com.dimec.inventory.model.DashboardCounters;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface DashboardCountersRepository extends JpaRepository<DashboardCounters, Long> {
+    
+    // Flushes pending entity changes first, so the counters row is locked after the rows they touch
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DashboardCounters d SET "
+            + "d.totalProducts = d.totalProducts + :products, "
+            + "d.totalCategories = d.totalCategories + :categories, "
+            + "d.totalSuppliers = d.totalSuppliers + :suppliers, "
+            + "d.lowStockProducts = d.lowStockProducts + :lowStock, "
+            + "d.totalIssuances = d.totalIssuances + :issuances, "
+            + "d.totalInventoryValue = d.totalInventoryValue + :inventoryValue, "
+            + "d.changeVersion = d.changeVersion + 1 "
+            + "WHERE d.id = :id")
+    int applyDelta(Long id, long products, long categories, long suppliers,
+                   long lowStock, long issuances, BigDecimal inventoryValue);
+    
+    // Read after applyDelta, under the row lock it took, to learn the version this transaction set
+    @Query("SELECT d.changeVersion FROM DashboardCounters d WHERE d.id = :id")
+    Optional<Long> findChangeVersion(Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM DashboardCounters d WHERE d.id = :id")
+    Optional<DashboardCounters> findForUpdate(Long id);
+}
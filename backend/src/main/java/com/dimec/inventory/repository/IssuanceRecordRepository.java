@@ -1,19 +1,69 @@
 package com.dimec.inventory.repository;
 
+import com.dimec.inventory.dto.IssuanceRecordDTO;
 import com.dimec.inventory.model.IssuanceRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IssuanceRecordRepository extends JpaRepository<IssuanceRecord, Long> {
+    
+    // Read-model projection: one joined statement per list call, no managed entities
+    String DTO_SELECT = "SELECT new com.dimec.inventory.dto.IssuanceRecordDTO("
+            + "ir.issuanceId, p.productId, p.name, u.userId, u.name, "
+            + "ir.quantityIssued, ir.issuedTo, ir.issueDate, ir.purpose) "
+            + "FROM IssuanceRecord ir JOIN ir.product p JOIN ir.user u ";
+    
     List<IssuanceRecord> findByProduct_ProductId(Long productId);
     List<IssuanceRecord> findByUser_UserId(Long userId);
     List<IssuanceRecord> findByIssueDateBetween(LocalDate startDate, LocalDate endDate);
+    long countByProduct_ProductId(Long productId);
+    boolean existsByUnitPriceIsNull();
+    
+    // Records written before unit_price existed (or inserted in bulk) take the current price
+    @Modifying
+    @Query("UPDATE IssuanceRecord ir SET ir.unitPrice = "
+            + "(SELECT p.unitPrice FROM Product p WHERE p = ir.product) "
+            + "WHERE ir.unitPrice IS NULL AND ir.issueDate BETWEEN :startDate AND :endDate")
+    int backfillUnitPrices(LocalDate startDate, LocalDate endDate);
     
     @Query("SELECT ir FROM IssuanceRecord ir ORDER BY ir.issueDate DESC")
     List<IssuanceRecord> findAllOrderByDateDesc();
+    
+    @Query(DTO_SELECT + "ORDER BY ir.issueDate DESC, ir.issuanceId DESC")
+    List<IssuanceRecordDTO> findAllDTOsOrderByDateDesc();
+    
+    @Query(DTO_SELECT + "ORDER BY ir.issueDate DESC, ir.issuanceId DESC")
+    List<IssuanceRecordDTO> findRecentDTOs(Pageable pageable);
+    
+    @Query(DTO_SELECT + "WHERE ir.issuanceId = :id")
+    Optional<IssuanceRecordDTO> findDTOById(Long id);
+    
+    @Query(DTO_SELECT + "WHERE ir.issuanceId IN :ids ORDER BY ir.issuanceId")
+    List<IssuanceRecordDTO> findDTOsByIds(Collection<Long> ids);
+    
+    @Query(DTO_SELECT + "WHERE ir.issueDate BETWEEN :startDate AND :endDate ORDER BY ir.issueDate, ir.issuanceId")
+    List<IssuanceRecordDTO> findDTOsByIssueDateBetween(LocalDate startDate, LocalDate endDate);
+    
+    // Forward-only cursors for exports: rows arrive in fetch-size chunks as DTOs, never as managed
+    // entities, so memory stays flat however long the range is. Must be consumed inside a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(DTO_SELECT + "ORDER BY ir.issueDate, ir.issuanceId")
+    Stream<IssuanceRecordDTO> streamAllDTOs();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(DTO_SELECT + "WHERE ir.issueDate BETWEEN :startDate AND :endDate ORDER BY ir.issueDate, ir.issuanceId")
+    Stream<IssuanceRecordDTO> streamDTOsByIssueDateBetween(LocalDate startDate, LocalDate endDate);
 }
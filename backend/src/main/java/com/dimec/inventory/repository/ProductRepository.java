@@ -1,20 +1,136 @@
 package com.dimec.inventory.repository;
 
+import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.dto.ProductStock;
+import com.dimec.inventory.dto.StockLevel;
 import com.dimec.inventory.model.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    
+    // Read-model projection: builds ProductDTO in the select clause so list endpoints
+    // issue one statement and never put Product/Category/Supplier entities in the context
+    String DTO_SELECT = "SELECT new com.dimec.inventory.dto.ProductDTO("
+            + "p.productId, p.name, c.categoryId, c.name, s.supplierId, s.name, "
+            + "p.quantity, p.unitPrice, p.reorderLevel, p.description, "
+            + "CASE WHEN p.quantity <= p.reorderLevel THEN true ELSE false END, p.changeVersion) "
+            + "FROM Product p JOIN p.category c JOIN p.supplier s ";
+    
+    // For read-modify-write of a whole product: concurrent stock updates wait until it commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productId = :productId")
+    Optional<Product> findByIdForUpdate(Long productId);
+    
     List<Product> findByCategory_CategoryId(Long categoryId);
     List<Product> findBySupplier_SupplierId(Long supplierId);
     
-    @Query("SELECT p FROM Product p WHERE p.quantity <= p.reorderLevel")
+    @Query("SELECT p FROM Product p WHERE p.stockMargin <= 0")
     List<Product> findLowStockProducts();
     
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Product> searchByName(String searchTerm);
+    
+    // Conditional decrement: the row lock taken by the UPDATE makes check-and-set atomic, so
+    // concurrent issuances can neither lose updates nor drive quantity below zero
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount, p.stockMargin = p.stockMargin - :amount, "
+            + "p.changeVersion = :version WHERE p.productId = :productId AND p.quantity >= :amount")
+    int decrementStock(Long productId, int amount, long version);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :amount, p.stockMargin = p.stockMargin + :amount, "
+            + "p.changeVersion = :version WHERE p.productId = :productId")
+    int incrementStock(Long productId, int amount, long version);
+    
+    // Change feed: rows written after `since`, up to the committed high-water mark, in version order
+    @Query(DTO_SELECT + "WHERE p.changeVersion > :since AND p.changeVersion <= :upTo ORDER BY p.changeVersion")
+    List<ProductDTO> findDTOsChangedBetween(long since, long upTo, Pageable pageable);
+    
+    @Query("SELECT max(p.changeVersion) FROM Product p")
+    Long findMaxChangeVersion();
+    
+    @Query("SELECT max(p.productId) FROM Product p")
+    Long findMaxProductId();
+    
+    // Bulk re-versioning: base + productId gives each row its own version inside a reserved range
+    @Modifying
+    @Query("UPDATE Product p SET p.changeVersion = :base + p.productId WHERE p.changeVersion IS NULL")
+    int stampUnversioned(long base);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.changeVersion = :base + p.productId WHERE p.category.categoryId = :categoryId")
+    int restampByCategory(Long categoryId, long base);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.changeVersion = :base + p.productId WHERE p.supplier.supplierId = :supplierId")
+    int restampBySupplier(Long supplierId, long base);
+    
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = :categoryId")
+    List<Long> findIdsByCategoryId(Long categoryId);
+    
+    @Query("SELECT p.productId FROM Product p WHERE p.supplier.supplierId = :supplierId")
+    List<Long> findIdsBySupplierId(Long supplierId);
+    
+    @Query("SELECT new com.dimec.inventory.dto.StockLevel(p.quantity, p.reorderLevel, p.unitPrice) "
+            + "FROM Product p WHERE p.productId = :productId")
+    Optional<StockLevel> findStockLevel(Long productId);
+    
+    // Locking read (SELECT ... FOR UPDATE) ahead of a stock change: sees the latest committed
+    // quantity even under REPEATABLE READ, and holds it until commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.dimec.inventory.dto.ProductStock(p.name, p.quantity, p.reorderLevel, p.unitPrice) "
+            + "FROM Product p WHERE p.productId = :productId")
+    Optional<ProductStock> findStockForUpdate(Long productId);
+    
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.stockMargin <= 0")
+    long countLowStockProducts();
+    
+    // Rows written before stock_margin existed, or inserted in bulk without it
+    @Modifying
+    @Query("UPDATE Product p SET p.stockMargin = p.quantity - p.reorderLevel WHERE p.stockMargin IS NULL")
+    int backfillStockMargins();
+    
+    @Query("SELECT COALESCE(SUM(p.unitPrice * p.quantity), 0) FROM Product p")
+    BigDecimal sumInventoryValue();
+    
+    @Query(DTO_SELECT + "ORDER BY p.productId")
+    List<ProductDTO> findAllDTOs();
+    
+    // Keyset page: rows strictly after the cursor id, walked in primary-key order
+    @Query(DTO_SELECT + "WHERE p.productId > :afterId ORDER BY p.productId")
+    List<ProductDTO> findDTOPageAfter(Long afterId, Pageable pageable);
+    
+    @Query(DTO_SELECT + "WHERE p.productId = :id")
+    Optional<ProductDTO> findDTOById(Long id);
+    
+    @Query(DTO_SELECT + "WHERE p.productId IN :ids")
+    List<ProductDTO> findDTOsByIds(Collection<Long> ids);
+    
+    @Query(DTO_SELECT + "WHERE c.categoryId = :categoryId ORDER BY p.productId")
+    List<ProductDTO> findDTOsByCategoryId(Long categoryId);
+    
+    @Query(DTO_SELECT + "WHERE s.supplierId = :supplierId ORDER BY p.productId")
+    List<ProductDTO> findDTOsBySupplierId(Long supplierId);
+    
+    @Query(DTO_SELECT + "WHERE p.stockMargin <= 0 ORDER BY p.productId")
+    List<ProductDTO> findLowStockDTOs();
+    
+    // Furthest below reorder level first; reads the head of idx_product_stock_margin
+    @Query(DTO_SELECT + "WHERE p.stockMargin <= 0 ORDER BY p.stockMargin, p.productId")
+    List<ProductDTO> findMostCriticalDTOs(Pageable pageable);
+    
+    @Query(DTO_SELECT + "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ORDER BY p.productId")
+    List<ProductDTO> searchDTOsByName(String searchTerm);
 }
@@ -0,0 +1,20 @@
+package com.dimec.inventory.repository;
+
+import com.dimec.inventory.model.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+    
+    @Query("SELECT t FROM ProductTombstone t WHERE t.changeVersion > :since AND t.changeVersion <= :upTo "
+            + "ORDER BY t.changeVersion")
+    List<ProductTombstone> findChangedBetween(long since, long upTo, Pageable pageable);
+    
+    @Query("SELECT max(t.changeVersion) FROM ProductTombstone t")
+    Long findMaxChangeVersion();
+}
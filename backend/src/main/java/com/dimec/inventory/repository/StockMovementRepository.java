@@ -0,0 +1,51 @@
+package com.dimec.inventory.repository;
+
+import com.dimec.inventory.dto.ProductQuantity;
+import com.dimec.inventory.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+    
+    @Query("SELECT m FROM StockMovement m WHERE m.productId = :productId AND m.movementId < :beforeId "
+            + "ORDER BY m.movementId DESC")
+    List<StockMovement> findPageBefore(Long productId, Long beforeId, Pageable pageable);
+    
+    // Sum of each product's movements after its latest snapshot, up to and including `until`
+    @Query("SELECT new com.dimec.inventory.dto.ProductQuantity(m.productId, sum(m.quantityChange)) "
+            + "FROM StockMovement m WHERE m.productId IN :productIds AND m.createdAt <= :until "
+            + "AND m.createdAt > coalesce((SELECT max(s.asOf) FROM StockSnapshot s "
+            + "WHERE s.productId = m.productId AND s.asOf <= :until), :origin) "
+            + "GROUP BY m.productId")
+    List<ProductQuantity> sumTails(Collection<Long> productIds, LocalDateTime until, LocalDateTime origin);
+    
+    @Query("SELECT coalesce(sum(m.quantityChange), 0) FROM StockMovement m "
+            + "WHERE m.productId = :productId AND m.createdAt > :after AND m.createdAt <= :until")
+    long sumBetween(Long productId, LocalDateTime after, LocalDateTime until);
+    
+    @Query("SELECT count(m) FROM StockMovement m "
+            + "WHERE m.productId = :productId AND m.createdAt > :after AND m.createdAt <= :until")
+    long countBetween(Long productId, LocalDateTime after, LocalDateTime until);
+    
+    // Products touched in a time window, for the snapshot job
+    @Query("SELECT DISTINCT m.productId FROM StockMovement m WHERE m.createdAt > :after AND m.createdAt <= :until")
+    List<Long> findProductIdsMovedBetween(LocalDateTime after, LocalDateTime until);
+    
+    // Products with no ledger history yet, in id order; their current quantity becomes the opening balance
+    @Query("SELECT new com.dimec.inventory.dto.ProductQuantity(p.productId, cast(p.quantity as Long)) "
+            + "FROM Product p WHERE p.productId > :afterId "
+            + "AND NOT EXISTS (SELECT 1 FROM StockMovement m WHERE m.productId = p.productId) "
+            + "ORDER BY p.productId")
+    List<ProductQuantity> findWithoutMovements(Long afterId, Pageable pageable);
+    
+    @Query("SELECT new com.dimec.inventory.dto.ProductQuantity(p.productId, cast(p.quantity as Long)) "
+            + "FROM Product p WHERE p.productId > :afterId ORDER BY p.productId")
+    List<ProductQuantity> findProductQuantitiesAfter(Long afterId, Pageable pageable);
+}
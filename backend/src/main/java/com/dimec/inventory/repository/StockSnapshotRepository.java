@@ -0,0 +1,25 @@
+package com.dimec.inventory.repository;
+
+import com.dimec.inventory.model.StockSnapshot;
+import com.dimec.inventory.model.StockSnapshotId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, StockSnapshotId> {
+    
+    Optional<StockSnapshot> findFirstByProductIdAndAsOfLessThanEqualOrderByAsOfDesc(Long productId, LocalDateTime at);
+    
+    @Query("SELECT s FROM StockSnapshot s WHERE s.productId IN :productIds AND s.asOf = "
+            + "(SELECT max(s2.asOf) FROM StockSnapshot s2 WHERE s2.productId = s.productId AND s2.asOf <= :until)")
+    List<StockSnapshot> findLatest(Collection<Long> productIds, LocalDateTime until);
+    
+    @Query("SELECT max(s.asOf) FROM StockSnapshot s")
+    LocalDateTime findLastSnapshotTime();
+}
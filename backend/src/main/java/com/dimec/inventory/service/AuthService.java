@@ -7,8 +7,8 @@ import com.dimec.inventory.dto.RegisterRequest;
 import com.dimec.inventory.model.User;
 import com.dimec.inventory.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -21,11 +21,13 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    // No surrounding transaction: a login waiting on the hashing bulkhead must not hold a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LoginResponse login(LoginRequest request) {
         // Validate input
         if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
@@ -40,16 +42,21 @@ public class AuthService {
                 .orElseThrow(() -> new EntityNotFoundException("Invalid email or password"));
         
         // Check password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        PasswordHasher.Verification verification = passwordHasher.verify(request.getPassword(), user.getPassword());
+        if (!verification.isMatches()) {
             throw new EntityNotFoundException("Invalid email or password");
         }
+        if (verification.getUpgradedHash() != null) {
+            userRepository.updatePassword(user.getUserId(), verification.getUpgradedHash());
+        }
         
         // Generate token
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole());
+        String token = jwtUtil.generateToken(user.getUserId(), user.getEmail(), user.getRole());
         
         return new LoginResponse(token, user.getUserId(), user.getName(), user.getEmail(), user.getRole());
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User register(RegisterRequest request) {
         // Validate input
         if (request.getName() == null || request.getName().trim().isEmpty()) {
@@ -89,7 +96,7 @@ public class AuthService {
         User user = new User();
         user.setName(request.getName().trim());
         user.setEmail(normalizedEmail);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHasher.encode(request.getPassword()));
         user.setRole(request.getRole().toUpperCase());
         
         try {
@@ -1,8 +1,11 @@
 package com.dimec.inventory.service;
 
+import com.dimec.inventory.event.InventoryChangedEvent;
 import com.dimec.inventory.model.Category;
 import com.dimec.inventory.repository.CategoryRepository;
+import com.dimec.inventory.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +17,21 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private IssuanceReportService issuanceReportService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductVersions productVersions;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -28,24 +46,44 @@ public class CategoryService {
         if (categoryRepository.existsByName(category.getName())) {
             throw new RuntimeException("Category with this name already exists");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        dashboardService.recordCategoryCountChange(1);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.CATEGORY, saved.getCategoryId(), InventoryChangedEvent.Action.CREATED));
+        return saved;
     }
     
     @Transactional
     public Category updateCategory(Long id, Category categoryDetails) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
+        boolean renamed = !category.getName().equals(categoryDetails.getName());
         
         category.setName(categoryDetails.getName());
         category.setDescription(categoryDetails.getDescription());
         
-        return categoryRepository.save(category);
+        Category updated = categoryRepository.save(category);
+        if (renamed) {
+            // Product DTOs carry the category name
+            productVersions.categoryChanged(id);
+        }
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.CATEGORY, id, InventoryChangedEvent.Action.UPDATED));
+        return updated;
     }
     
     @Transactional
     public void deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
+        productVersions.productsDeleted(productRepository.findIdsByCategoryId(id));
         categoryRepository.delete(category);
+        
+        // Products (and their issuances) cascade with the category, so recount rather than track deltas
+        categoryRepository.flush();
+        dashboardService.rebuild();
+        issuanceReportService.productsDeleted();
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.CATEGORY, id, InventoryChangedEvent.Action.DELETED));
     }
 }
@@ -1,20 +1,38 @@
 package com.dimec.inventory.service;
 
 import com.dimec.inventory.dto.DashboardStats;
-import com.dimec.inventory.model.Product;
+import com.dimec.inventory.dto.StockLevel;
+import com.dimec.inventory.event.DashboardChangedEvent;
+import com.dimec.inventory.model.DashboardCounters;
 import com.dimec.inventory.repository.CategoryRepository;
+import com.dimec.inventory.repository.DashboardCountersRepository;
 import com.dimec.inventory.repository.IssuanceRecordRepository;
 import com.dimec.inventory.repository.ProductRepository;
 import com.dimec.inventory.repository.SupplierRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class DashboardService {
     
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+    
     @Autowired
     private ProductRepository productRepository;
     
@@ -27,22 +45,240 @@ public class DashboardService {
     @Autowired
     private IssuanceRecordRepository issuanceRecordRepository;
     
+    @Autowired
+    private DashboardCountersRepository dashboardCountersRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TableVersions tableVersions;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Drift found by the last reconciliation: sum of absolute count differences, and value difference
+    private final AtomicLong lastCountDrift = new AtomicLong();
+    private volatile BigDecimal lastValueDrift = BigDecimal.ZERO;
+    private Counter reconciliations;
+    
+    // Counter changes made by one transaction, written to the row once just before it commits
+    private class PendingDelta implements TransactionSynchronization {
+        long products;
+        long categories;
+        long suppliers;
+        long lowStock;
+        long issuances;
+        BigDecimal inventoryValue = BigDecimal.ZERO;
+        
+        void add(long products, long categories, long suppliers, long lowStock, long issuances,
+                 BigDecimal inventoryValue) {
+            this.products += products;
+            this.categories += categories;
+            this.suppliers += suppliers;
+            this.lowStock += lowStock;
+            this.issuances += issuances;
+            this.inventoryValue = this.inventoryValue.add(inventoryValue);
+        }
+        
+        void clear() {
+            add(-products, -categories, -suppliers, -lowStock, -issuances, inventoryValue.negate());
+        }
+        
+        boolean isEmpty() {
+            return products == 0 && categories == 0 && suppliers == 0 && lowStock == 0 && issuances == 0
+                    && inventoryValue.signum() == 0;
+        }
+        
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!isEmpty()) {
+                writeDelta(products, categories, suppliers, lowStock, issuances, inventoryValue);
+            }
+        }
+        
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DashboardService.this);
+        }
+    }
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("inventory.dashboard.drift.count", lastCountDrift, AtomicLong::doubleValue)
+                .description("Absolute count drift corrected by the last dashboard reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("inventory.dashboard.drift.value", this, s -> s.lastValueDrift.doubleValue())
+                .description("Inventory value drift corrected by the last dashboard reconciliation")
+                .register(meterRegistry);
+        reconciliations = Counter.builder("inventory.dashboard.reconciliations")
+                .register(meterRegistry);
+    }
+    
     public DashboardStats getDashboardStats() {
-        DashboardStats stats = new DashboardStats();
-        
-        stats.setTotalProducts(productRepository.count());
-        stats.setTotalCategories(categoryRepository.count());
-        stats.setTotalSuppliers(supplierRepository.count());
-        stats.setLowStockProducts((long) productRepository.findLowStockProducts().size());
-        stats.setTotalIssuances(issuanceRecordRepository.count());
-        
-        // Calculate total inventory value
-        List<Product> products = productRepository.findAll();
-        BigDecimal totalValue = products.stream()
-                .map(p -> p.getUnitPrice().multiply(BigDecimal.valueOf(p.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTotalInventoryValue(totalValue);
-        
-        return stats;
+        return dashboardCountersRepository.findById(DashboardCounters.SINGLETON_ID)
+                .map(this::toStats)
+                .orElseGet(() -> toStats(computeCounters()));
+    }
+    
+    // Called by ProductService in the writing transaction; before is null on create, after is null on delete
+    @Transactional
+    public void recordProductChange(StockLevel before, StockLevel after) {
+        long products = 0;
+        long lowStock = 0;
+        BigDecimal value = BigDecimal.ZERO;
+        
+        if (before != null) {
+            products--;
+            lowStock -= before.isLowStock() ? 1 : 0;
+            value = value.subtract(before.getValue());
+        }
+        if (after != null) {
+            products++;
+            lowStock += after.isLowStock() ? 1 : 0;
+            value = value.add(after.getValue());
+        }
+        
+        if (products != 0 || lowStock != 0 || value.signum() != 0) {
+            applyDelta(products, 0, 0, lowStock, 0, value);
+        }
+    }
+    
+    @Transactional
+    public void recordCategoryCountChange(long delta) {
+        applyDelta(0, delta, 0, 0, 0, BigDecimal.ZERO);
+    }
+    
+    @Transactional
+    public void recordSupplierCountChange(long delta) {
+        applyDelta(0, 0, delta, 0, 0, BigDecimal.ZERO);
+    }
+    
+    @Transactional
+    public void recordIssuanceCountChange(long delta) {
+        if (delta != 0) {
+            applyDelta(0, 0, 0, 0, delta, BigDecimal.ZERO);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeCounters() {
+        // The low-stock count reads stock_margin
+        int backfilled = productRepository.backfillStockMargins();
+        if (backfilled > 0) {
+            log.info("Computed stock margins for {} products", backfilled);
+        }
+        recount(false);
+    }
+    
+    // Full recompute that overwrites the materialized row and reports how far it had drifted
+    @Scheduled(fixedDelayString = "${inventory.dashboard.reconcile-interval-ms:300000}",
+            initialDelayString = "${inventory.dashboard.reconcile-interval-ms:300000}")
+    @Transactional
+    public void reconcile() {
+        recount(true);
+    }
+    
+    // Recount after bulk changes (cascading deletes) whose deltas are not tracked; not reported as drift
+    @Transactional
+    public void rebuild() {
+        recount(false);
+    }
+    
+    private void recount(boolean reportDrift) {
+        // The recount already sees this transaction's own writes, so its pending delta is dropped
+        PendingDelta pending = (PendingDelta) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            pending.clear();
+        }
+        // Lock the row first so in-flight deltas either commit before the recount or apply on top of it
+        DashboardCounters stored = dashboardCountersRepository.findForUpdate(DashboardCounters.SINGLETON_ID)
+                .orElse(null);
+        DashboardCounters actual = computeCounters();
+        
+        long countDrift = 0;
+        BigDecimal valueDrift = BigDecimal.ZERO;
+        if (stored != null) {
+            countDrift = Math.abs(stored.getTotalProducts() - actual.getTotalProducts())
+                    + Math.abs(stored.getTotalCategories() - actual.getTotalCategories())
+                    + Math.abs(stored.getTotalSuppliers() - actual.getTotalSuppliers())
+                    + Math.abs(stored.getLowStockProducts() - actual.getLowStockProducts())
+                    + Math.abs(stored.getTotalIssuances() - actual.getTotalIssuances());
+            valueDrift = actual.getTotalInventoryValue().subtract(stored.getTotalInventoryValue());
+        }
+        
+        if (stored != null && reportDrift) {
+            lastCountDrift.set(countDrift);
+            lastValueDrift = valueDrift;
+            if (countDrift != 0 || valueDrift.signum() != 0) {
+                log.warn("Dashboard counters drifted (counts: {}, value: {}); reconciled", countDrift, valueDrift);
+            }
+        }
+        
+        boolean changed = stored == null || countDrift != 0 || valueDrift.signum() != 0;
+        long version = stored == null ? 0 : stored.getChangeVersion();
+        actual.setChangeVersion(changed ? version + 1 : version);
+        dashboardCountersRepository.save(actual);
+        if (changed) {
+            tableVersions.bumpAfterCommit(TableVersions.Table.DASHBOARD);
+            eventPublisher.publishEvent(new DashboardChangedEvent(toStats(actual), false));
+        }
+        if (reportDrift) {
+            reconciliations.increment();
+        }
+    }
+    
+    // Deltas are summed per transaction and written once just before commit. The counters row is
+    // then locked only for the last statement of each writer, never ahead of product rows, so
+    // writers do not queue on it for their whole duration and cannot deadlock through it.
+    private void applyDelta(long products, long categories, long suppliers,
+                            long lowStock, long issuances, BigDecimal inventoryValue) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeDelta(products, categories, suppliers, lowStock, issuances, inventoryValue);
+            return;
+        }
+        PendingDelta pending = (PendingDelta) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingDelta();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(products, categories, suppliers, lowStock, issuances, inventoryValue);
+    }
+    
+    private void writeDelta(long products, long categories, long suppliers,
+                            long lowStock, long issuances, BigDecimal inventoryValue) {
+        // A missing row is tolerated; the next reconciliation creates it and publishes a snapshot
+        int updated = dashboardCountersRepository.applyDelta(DashboardCounters.SINGLETON_ID,
+                products, categories, suppliers, lowStock, issuances, inventoryValue);
+        if (updated == 0) {
+            return;
+        }
+        Long version = dashboardCountersRepository.findChangeVersion(DashboardCounters.SINGLETON_ID).orElse(null);
+        eventPublisher.publishEvent(new DashboardChangedEvent(
+                new DashboardStats(products, categories, suppliers, lowStock, inventoryValue, issuances, version), true));
+    }
+    
+    private DashboardCounters computeCounters() {
+        DashboardCounters counters = new DashboardCounters();
+        counters.setTotalProducts(productRepository.count());
+        counters.setTotalCategories(categoryRepository.count());
+        counters.setTotalSuppliers(supplierRepository.count());
+        counters.setLowStockProducts(productRepository.countLowStockProducts());
+        counters.setTotalIssuances(issuanceRecordRepository.count());
+        counters.setTotalInventoryValue(productRepository.sumInventoryValue());
+        return counters;
+    }
+    
+    private DashboardStats toStats(DashboardCounters counters) {
+        return new DashboardStats(
+                counters.getTotalProducts(),
+                counters.getTotalCategories(),
+                counters.getTotalSuppliers(),
+                counters.getLowStockProducts(),
+                counters.getTotalInventoryValue(),
+                counters.getTotalIssuances(),
+                counters.getChangeVersion());
     }
 }
@@ -0,0 +1,168 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.config.AuthenticatedUser;
+import com.dimec.inventory.exception.IdempotencyKeyReusedException;
+import com.dimec.inventory.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Idempotency-Key support for create endpoints. The first request with a key runs; a retry with
+// the same key (same caller, same endpoint) waits for it and gets its response replayed from
+// memory, without touching the database. Only successful responses are kept: after a failure
+// the next retry runs again. Entries live for inventory.idempotency.ttl-ms, in-process like
+// TableVersions, so a key only deduplicates retries that reach the same instance.
+@Service
+public class IdempotentRequests {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${inventory.idempotency.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${inventory.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+    
+    // How long a duplicate waits for the first attempt before being told to retry later
+    @Value("${inventory.idempotency.wait-ms:30000}")
+    private long waitMs;
+    
+    @Value("${inventory.idempotency.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private Counter replays;
+    
+    private static class Entry {
+        final Object request;
+        final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        volatile long expiresAtMillis = Long.MAX_VALUE;
+        
+        Entry(Object request) {
+            this.request = request;
+        }
+        
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+    
+    @PostConstruct
+    void init() {
+        replays = Counter.builder("inventory.idempotency.replayed")
+                .description("Requests answered from the idempotency store instead of running again")
+                .register(meterRegistry);
+    }
+    
+    // Runs `action` once per (caller, endpoint, key); without a key it simply runs
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String endpoint, String idempotencyKey, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        AuthenticatedUser caller = AuthenticatedUser.current()
+                .orElseThrow(() -> new AccessDeniedException("No authenticated user"));
+        String key = caller.getEmail() + " " + endpoint + " " + idempotencyKey;
+        
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry entry = new Entry(request);
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                return run(key, entry, action, now);
+            }
+            if (existing.isExpired(now)) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!Objects.equals(existing.request, request)) {
+                throw new IdempotencyKeyReusedException(HEADER + " was already used with a different request");
+            }
+            ResponseEntity<?> response = await(existing);
+            if (response != null) {
+                replays.increment();
+                return (ResponseEntity<T>) replayed(response);
+            }
+            // The first attempt failed and gave up its entry; this retry takes its place
+        }
+    }
+    
+    private <T> ResponseEntity<T> run(String key, Entry entry, Supplier<ResponseEntity<T>> action, long now) {
+        if (entries.size() > maxEntries) {
+            entries.values().removeIf(e -> e.isExpired(now));
+        }
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.response.complete(null);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            entry.expiresAtMillis = System.currentTimeMillis() + ttlMs;
+            // Still over the bound after dropping expired entries: answer, but do not keep it
+            if (entries.size() > maxEntries) {
+                entries.remove(key, entry);
+            }
+            entry.response.complete(response);
+        } else {
+            entries.remove(key, entry);
+            entry.response.complete(null);
+        }
+        return response;
+    }
+    
+    // The first attempt's response, or null when it did not succeed
+    private ResponseEntity<?> await(Entry entry) {
+        try {
+            return entry.response.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException("A request with this " + HEADER + " is still in progress", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for the original request", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+    
+    private static ResponseEntity<?> replayed(ResponseEntity<?> response) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.idempotency.evict-interval-ms:60000}")
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.isExpired(now));
+    }
+}
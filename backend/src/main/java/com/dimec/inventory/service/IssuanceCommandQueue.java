@@ -0,0 +1,232 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.config.AuthenticatedUser;
+import com.dimec.inventory.dto.BatchIssuanceLineResult;
+import com.dimec.inventory.dto.BatchIssuanceResponse;
+import com.dimec.inventory.dto.CreateIssuanceRequest;
+import com.dimec.inventory.dto.IssuanceCommandStatus;
+import com.dimec.inventory.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Async issuance ingestion (inventory.issuance.async.enabled=true). Commands are sharded by
+// product id onto single-writer queues, so all commands for a product are applied in arrival
+// order by one thread. Each writer drains whatever has queued up and applies it in one
+// transaction, so under load many issuances share a commit.
+@Service
+@ConditionalOnProperty(name = "inventory.issuance.async.enabled", havingValue = "true")
+public class IssuanceCommandQueue {
+    
+    private static final Logger log = LoggerFactory.getLogger(IssuanceCommandQueue.class);
+    
+    @Autowired
+    private IssuanceService issuanceService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${inventory.issuance.async.shards:4}")
+    private int shardCount;
+    
+    // Per shard
+    @Value("${inventory.issuance.async.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${inventory.issuance.async.max-group-size:500}")
+    private int maxGroupSize;
+    
+    @Value("${inventory.issuance.async.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+    
+    @Value("${inventory.issuance.async.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+    
+    @Value("${inventory.issuance.async.status-retention-ms:600000}")
+    private long statusRetentionMs;
+    
+    private final Map<String, Command> commands = new ConcurrentHashMap<>();
+    private final List<Shard> shards = new ArrayList<>();
+    private volatile boolean accepting;
+    private Counter rejections;
+    private DistributionSummary groupSizes;
+    
+    private static class Command {
+        final String id = UUID.randomUUID().toString();
+        final CreateIssuanceRequest request;
+        final AuthenticatedUser issuer;
+        final Instant submittedAt = Instant.now();
+        volatile IssuanceCommandStatus.Status status = IssuanceCommandStatus.Status.QUEUED;
+        volatile BatchIssuanceLineResult result;
+        volatile Instant completedAt;
+        
+        Command(CreateIssuanceRequest request, AuthenticatedUser issuer) {
+            this.request = request;
+            this.issuer = issuer;
+        }
+    }
+    
+    @PostConstruct
+    void init() {
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i));
+        }
+        accepting = true;
+        shards.forEach(shard -> shard.thread.start());
+        
+        Gauge.builder("inventory.issuance.async.queued", this,
+                        q -> q.shards.stream().mapToInt(s -> s.queue.size()).sum())
+                .description("Issuance commands waiting for a writer")
+                .register(meterRegistry);
+        rejections = Counter.builder("inventory.issuance.async.rejected")
+                .description("Issuance commands turned away because a shard queue was full")
+                .register(meterRegistry);
+        groupSizes = DistributionSummary.builder("inventory.issuance.async.group.size")
+                .description("Issuance commands applied per commit")
+                .register(meterRegistry);
+    }
+    
+    // Runs after the web server has stopped taking requests; writers finish what is queued
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        accepting = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (Shard shard : shards) {
+            shard.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        int abandoned = shards.stream().mapToInt(s -> s.queue.size()).sum();
+        if (abandoned > 0) {
+            log.warn("Shutdown timed out with {} issuance commands still queued", abandoned);
+            shards.forEach(shard -> shard.thread.interrupt());
+        }
+    }
+    
+    public IssuanceCommandStatus submit(CreateIssuanceRequest request) {
+        AuthenticatedUser issuer = AuthenticatedUser.current()
+                .orElseThrow(() -> new AccessDeniedException("No authenticated user"));
+        if (!accepting) {
+            throw new ServiceBusyException("Issuance queue is shutting down", retryAfterSeconds);
+        }
+        Command command = new Command(request, issuer);
+        commands.put(command.id, command);
+        Shard shard = shards.get(Math.floorMod(request.getProductId().hashCode(), shards.size()));
+        if (!shard.queue.offer(command)) {
+            commands.remove(command.id);
+            rejections.increment();
+            throw new ServiceBusyException("Issuance queue is full, please retry shortly", retryAfterSeconds);
+        }
+        return toStatus(command);
+    }
+    
+    // Only the submitter (or an admin) can see a command
+    public Optional<IssuanceCommandStatus> getStatus(String commandId) {
+        AuthenticatedUser caller = AuthenticatedUser.current()
+                .orElseThrow(() -> new AccessDeniedException("No authenticated user"));
+        return Optional.ofNullable(commands.get(commandId))
+                .filter(c -> c.issuer.getEmail().equals(caller.getEmail()) || "ADMIN".equals(caller.getRole()))
+                .map(this::toStatus);
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.issuance.async.status-retention-ms:600000}")
+    void evictCompleted() {
+        Instant cutoff = Instant.now().minusMillis(statusRetentionMs);
+        commands.values().removeIf(c -> c.completedAt != null && c.completedAt.isBefore(cutoff));
+    }
+    
+    private IssuanceCommandStatus toStatus(Command command) {
+        BatchIssuanceLineResult result = command.result;
+        return new IssuanceCommandStatus(command.id, command.status,
+                result == null ? null : result.getIssuance(),
+                result == null ? null : result.getMessage(),
+                command.submittedAt, command.completedAt);
+    }
+    
+    private class Shard implements Runnable {
+        final BlockingQueue<Command> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final Thread thread;
+        
+        Shard(int index) {
+            thread = new Thread(this, "issuance-writer-" + index);
+        }
+        
+        @Override
+        public void run() {
+            List<Command> group = new ArrayList<>(maxGroupSize);
+            while (accepting || !queue.isEmpty()) {
+                try {
+                    Command first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    group.add(first);
+                    queue.drainTo(group, maxGroupSize - 1);
+                    apply(group);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Issuance writer {} failed", thread.getName(), e);
+                } finally {
+                    group.clear();
+                }
+            }
+        }
+        
+        private void apply(List<Command> group) {
+            try {
+                BatchIssuanceResponse response = issuanceService.applyQueuedIssuances(
+                        group.stream().map(c -> c.request).toList(),
+                        group.stream().map(c -> c.issuer).toList());
+                groupSizes.record(group.size());
+                for (int i = 0; i < group.size(); i++) {
+                    complete(group.get(i), response.getResults().get(i));
+                }
+            } catch (RuntimeException e) {
+                if (group.size() == 1) {
+                    Command command = group.get(0);
+                    command.result = new BatchIssuanceLineResult(0, BatchIssuanceLineResult.Status.REJECTED, null,
+                            e.getMessage());
+                    command.completedAt = Instant.now();
+                    command.status = IssuanceCommandStatus.Status.FAILED;
+                    return;
+                }
+                // Isolate the command that broke the group commit; the rest still go through
+                log.warn("Group commit of {} issuance commands failed, applying them one by one", group.size(), e);
+                for (Command command : group) {
+                    apply(List.of(command));
+                }
+            }
+        }
+        
+        private void complete(Command command, BatchIssuanceLineResult result) {
+            // Status last: pollers that see a final status also see the result
+            command.result = result;
+            command.completedAt = Instant.now();
+            command.status = result.getStatus() == BatchIssuanceLineResult.Status.ISSUED
+                    ? IssuanceCommandStatus.Status.ISSUED
+                    : IssuanceCommandStatus.Status.REJECTED;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.dto.ExportFormat;
+import com.dimec.inventory.dto.IssuanceRecordDTO;
+import com.dimec.inventory.repository.IssuanceRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class IssuanceExportService {
+    
+    private static final String CSV_HEADER =
+            "issuanceId,issueDate,productId,productName,quantityIssued,issuedTo,userId,userName,purpose";
+    private static final int FLUSH_EVERY_ROWS = 500;
+    
+    @Autowired
+    private IssuanceRecordRepository issuanceRecordRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Streams rows straight from the database cursor to the response; the transaction only
+    // exists to keep the cursor open and is read-only so no flush or dirty checking happens
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        try (Stream<IssuanceRecordDTO> rows = startDate == null
+                ? issuanceRecordRepository.streamAllDTOs()
+                : issuanceRecordRepository.streamDTOsByIssueDateBetween(startDate, endDate)) {
+            return format == ExportFormat.CSV ? writeCsv(rows, out) : writeNdjson(rows, out);
+        }
+    }
+    
+    private long writeCsv(Stream<IssuanceRecordDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        
+        long count = 0;
+        for (Iterator<IssuanceRecordDTO> it = rows.iterator(); it.hasNext(); ) {
+            IssuanceRecordDTO row = it.next();
+            writer.write(String.valueOf(row.getIssuanceId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getIssueDate()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getProductId()));
+            writer.write(',');
+            writer.write(csv(row.getProductName()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getQuantityIssued()));
+            writer.write(',');
+            writer.write(csv(row.getIssuedTo()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getUserId()));
+            writer.write(',');
+            writer.write(csv(row.getUserName()));
+            writer.write(',');
+            writer.write(csv(row.getPurpose()));
+            writer.write('\n');
+            
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+    
+    private long writeNdjson(Stream<IssuanceRecordDTO> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(new NonClosingOutputStream(out))) {
+            for (Iterator<IssuanceRecordDTO> it = rows.iterator(); it.hasNext(); ) {
+                writer.write(it.next());
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+    
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+    
+    // The servlet container owns the response stream; closing the Jackson writer must not close it
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.dto.IssuanceReportGrouping;
+import com.dimec.inventory.dto.IssuanceReportRow;
+import com.dimec.inventory.repository.DailyIssuanceRollupRepository;
+import com.dimec.inventory.repository.IssuanceRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Issuance reports served from daily_issuance_rollup: a year-long report reads at most 365 rows
+// per product instead of every issuance record in the range
+@Service
+public class IssuanceReportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IssuanceReportService.class);
+    
+    @Autowired
+    private DailyIssuanceRollupRepository rollupRepository;
+    
+    @Autowired
+    private IssuanceRecordRepository issuanceRecordRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    public List<IssuanceReportRow> getReport(LocalDate startDate, LocalDate endDate, IssuanceReportGrouping grouping,
+                                             Long categoryId, Long productId) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        switch (grouping) {
+            case PRODUCT:
+                return rollupRepository.totalsByProduct(startDate, endDate, categoryId, productId);
+            case CATEGORY:
+                return rollupRepository.totalsByCategory(startDate, endDate, categoryId, productId);
+            default:
+                return rollupRepository.totalsByDay(startDate, endDate, categoryId, productId);
+        }
+    }
+    
+    // Called in the issuance transaction, after the stock update has locked the product row
+    @Transactional
+    public void recordIssued(LocalDate issueDate, Long productId, int count, long quantity, BigDecimal value) {
+        if (rollupRepository.applyDelta(issueDate, productId, count, quantity, value) == 0) {
+            rollupRepository.insertFor(issueDate, productId, count, quantity, value);
+        }
+    }
+    
+    // `value` is the record's quantity times its stored unit price, i.e. what recordIssued added
+    @Transactional
+    public void recordDeleted(LocalDate issueDate, Long productId, long quantity, BigDecimal value) {
+        rollupRepository.applyDelta(issueDate, productId, -1, -quantity, value.negate());
+        rollupRepository.deleteIfEmpty(issueDate, productId);
+    }
+    
+    @Transactional
+    public void productDeleted(Long productId) {
+        rollupRepository.deleteByProductId(productId);
+    }
+    
+    @Transactional
+    public void productMoved(Long productId, Long categoryId) {
+        rollupRepository.moveToCategory(productId, categoryId);
+    }
+    
+    // After cascading category or supplier deletes
+    @Transactional
+    public void productsDeleted() {
+        rollupRepository.deleteOrphans();
+    }
+    
+    // Backfill for history written before the rollup existed (or loaded in bulk): runs at startup
+    // when the rollup is empty, or when some records still have no unit price
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 || issuanceRecordRepository.existsByUnitPriceIsNull()) {
+            rebuild();
+        }
+    }
+    
+    // Recomputes the whole rollup from the raw records, one month per transaction. Records without
+    // a unit price are priced in the same month-sized transactions, so no single UPDATE spans the table.
+    public void rebuild() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        LocalDate first = rollupRepository.findFirstIssueDate();
+        LocalDate last = rollupRepository.findLastIssueDate();
+        if (first == null) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        int rows = 0;
+        int[] priced = {0};
+        for (LocalDate from = first.withDayOfMonth(1); !from.isAfter(last); from = from.plusMonths(1)) {
+            LocalDate to = from.plusMonths(1).minusDays(1);
+            LocalDate start = from;
+            rows += template.execute(status -> {
+                priced[0] += issuanceRecordRepository.backfillUnitPrices(start, to);
+                rollupRepository.deleteRange(start, to);
+                return rollupRepository.insertRangeFromRecords(start, to);
+            });
+        }
+        if (priced[0] > 0) {
+            log.info("Priced {} issuance records at their product's current unit price", priced[0]);
+        }
+        log.info("Issuance rollup rebuilt: {} rows from {} to {} in {} ms",
+                rows, first, last, System.currentTimeMillis() - started);
+    }
+}
@@ -1,24 +1,49 @@
 package com.dimec.inventory.service;
 
+import com.dimec.inventory.config.AuthenticatedUser;
+import com.dimec.inventory.dto.BatchIssuanceLineResult;
+import com.dimec.inventory.dto.BatchIssuanceRequest;
+import com.dimec.inventory.dto.BatchIssuanceResponse;
+import com.dimec.inventory.dto.BatchMode;
 import com.dimec.inventory.dto.CreateIssuanceRequest;
 import com.dimec.inventory.dto.IssuanceRecordDTO;
+import com.dimec.inventory.dto.StockChange;
+import com.dimec.inventory.dto.StockMutationResult;
+import com.dimec.inventory.event.InventoryChangedEvent;
 import com.dimec.inventory.model.IssuanceRecord;
-import com.dimec.inventory.model.Product;
+import com.dimec.inventory.model.StockMovement;
 import com.dimec.inventory.model.User;
 import com.dimec.inventory.repository.IssuanceRecordRepository;
 import com.dimec.inventory.repository.ProductRepository;
 import com.dimec.inventory.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class IssuanceService {
     
+    // Passes over a product's lines in BEST_EFFORT mode before the remaining lines are rejected
+    private static final int MAX_BEST_EFFORT_ATTEMPTS = 3;
+    
     @Autowired
     private IssuanceRecordRepository issuanceRecordRepository;
     
@@ -29,55 +54,266 @@ public class IssuanceService {
     private UserRepository userRepository;
     
     @Autowired
-    private ProductService productService;
+    private StockService stockService;
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private IssuanceReportService issuanceReportService;
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${inventory.issuance.batch.max-lines:500}")
+    private int maxBatchLines;
+    
+    @Value("${inventory.issuance.recent.max-size:200}")
+    private int maxRecent;
     
     public List<IssuanceRecordDTO> getAllIssuances() {
-        return issuanceRecordRepository.findAllOrderByDateDesc().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return issuanceRecordRepository.findAllDTOsOrderByDateDesc();
+    }
+    
+    // The newest `limit` records, for views that only show the latest few
+    public List<IssuanceRecordDTO> getRecentIssuances(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return issuanceRecordRepository.findRecentDTOs(PageRequest.ofSize(Math.min(limit, maxRecent)));
     }
     
     public IssuanceRecordDTO getIssuanceById(Long id) {
-        IssuanceRecord record = issuanceRecordRepository.findById(id)
+        return issuanceRecordRepository.findDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Issuance record not found"));
-        return convertToDTO(record);
     }
     
     public List<IssuanceRecordDTO> getIssuancesByDateRange(LocalDate startDate, LocalDate endDate) {
-        return issuanceRecordRepository.findByIssueDateBetween(startDate, endDate).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return issuanceRecordRepository.findDTOsByIssueDateBetween(startDate, endDate);
     }
     
-    @Transactional
     public IssuanceRecordDTO createIssuance(CreateIssuanceRequest request) {
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        
-        // Get current user (for now, we'll use the first admin user)
-        User user = userRepository.findAll().stream()
-                .filter(u -> "ADMIN".equals(u.getRole()))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("No admin user found"));
+        return stockService.executeWithRetry(() -> doCreateIssuance(request));
+    }
+    
+    private IssuanceRecordDTO doCreateIssuance(CreateIssuanceRequest request) {
+        User user = currentUser();
         
-        // Check if sufficient stock is available
-        if (product.getQuantity() < request.getQuantityIssued()) {
-            throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
-        }
+        // Locking read and decrement; throws InsufficientStockException or "Product not found"
+        StockChange change = stockService.decrement(request.getProductId(), request.getQuantityIssued());
+        BigDecimal unitPrice = change.getAfter().getUnitPrice();
         
         IssuanceRecord issuanceRecord = new IssuanceRecord();
-        issuanceRecord.setProduct(product);
+        issuanceRecord.setProduct(productRepository.getReferenceById(request.getProductId()));
         issuanceRecord.setUser(user);
         issuanceRecord.setQuantityIssued(request.getQuantityIssued());
         issuanceRecord.setIssuedTo(request.getIssuedTo());
         issuanceRecord.setPurpose(request.getPurpose());
         issuanceRecord.setIssueDate(LocalDate.now());
-        
-        // Update product stock
-        productService.updateStock(product.getProductId(), -request.getQuantityIssued());
+        issuanceRecord.setUnitPrice(unitPrice);
         
         IssuanceRecord saved = issuanceRecordRepository.save(issuanceRecord);
-        return convertToDTO(saved);
+        dashboardService.recordIssuanceCountChange(1);
+        issuanceReportService.recordIssued(saved.getIssueDate(), request.getProductId(), 1, request.getQuantityIssued(),
+                unitPrice.multiply(BigDecimal.valueOf(request.getQuantityIssued())));
+        stockLedgerService.record(request.getProductId(), StockMovement.Type.ISSUANCE, -request.getQuantityIssued(),
+                saved.getIssuanceId());
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.ISSUANCE, saved.getIssuanceId(), InventoryChangedEvent.Action.CREATED));
+        // Built from what is already known instead of read back: the product name came with the
+        // stock read, and the user's name from the second-level cache
+        return new IssuanceRecordDTO(saved.getIssuanceId(), request.getProductId(), change.getProductName(),
+                user.getUserId(), user.getName(), saved.getQuantityIssued(), saved.getIssuedTo(),
+                saved.getIssueDate(), saved.getPurpose());
+    }
+    
+    public BatchIssuanceResponse createIssuanceBatch(BatchIssuanceRequest request) {
+        List<CreateIssuanceRequest> lines = request.getLines();
+        if (lines.size() > maxBatchLines) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxBatchLines + " lines");
+        }
+        BatchMode mode = request.getMode() == null ? BatchMode.ALL_OR_NOTHING : request.getMode();
+        
+        AuthenticatedUser caller = AuthenticatedUser.current()
+                .orElseThrow(() -> new AccessDeniedException("No authenticated user"));
+        List<AuthenticatedUser> issuers = Collections.nCopies(lines.size(), caller);
+        try {
+            return stockService.executeWithRetry(() -> doCreateIssuanceBatch(lines, issuers, mode));
+        } catch (BatchRejectedException e) {
+            return e.getResponse();
+        }
+    }
+    
+    // Group commit for the async queue: lines from different callers go out in one transaction,
+    // each checked against the stock left by the lines before it for the same product
+    public BatchIssuanceResponse applyQueuedIssuances(List<CreateIssuanceRequest> lines, List<AuthenticatedUser> issuers) {
+        return stockService.executeWithRetry(() -> doCreateIssuanceBatch(lines, issuers, BatchMode.BEST_EFFORT));
+    }
+    
+    private BatchIssuanceResponse doCreateIssuanceBatch(List<CreateIssuanceRequest> lines, List<AuthenticatedUser> issuers,
+                                                        BatchMode mode) {
+        BatchIssuanceLineResult[] results = new BatchIssuanceLineResult[lines.size()];
+        
+        // Validate every line up front, then group the valid ones per product. Products are visited
+        // in id order so concurrent batches always take row locks in the same order.
+        Map<Long, List<Integer>> linesByProduct = new TreeMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String error = validateLine(lines.get(i));
+            if (error != null) {
+                results[i] = new BatchIssuanceLineResult(i, BatchIssuanceLineResult.Status.REJECTED, null, error);
+            } else {
+                linesByProduct.computeIfAbsent(lines.get(i).getProductId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        // One stock update per product, whatever the number of lines for it
+        List<Integer> accepted = new ArrayList<>();
+        Map<Long, BigDecimal> unitPrices = new HashMap<>();
+        linesByProduct.forEach((productId, indexes) ->
+                accepted.addAll(reserveStock(productId, indexes, lines, mode, results, unitPrices)));
+        
+        if (mode == BatchMode.ALL_OR_NOTHING && accepted.size() < lines.size()) {
+            for (Integer i : accepted) {
+                results[i] = new BatchIssuanceLineResult(i, BatchIssuanceLineResult.Status.NOT_APPLIED, null,
+                        "Not applied: another line in the batch was rejected");
+            }
+            // Throwing rolls back the stock updates already made in this transaction
+            throw new BatchRejectedException(toBatchResponse(mode, false, results));
+        }
+        
+        if (!accepted.isEmpty()) {
+            Collections.sort(accepted);
+            Map<AuthenticatedUser, User> users = new HashMap<>();
+            LocalDate today = LocalDate.now();
+            
+            List<IssuanceRecord> records = new ArrayList<>(accepted.size());
+            for (Integer i : accepted) {
+                CreateIssuanceRequest line = lines.get(i);
+                IssuanceRecord record = new IssuanceRecord();
+                record.setProduct(productRepository.getReferenceById(line.getProductId()));
+                record.setUser(users.computeIfAbsent(issuers.get(i), this::toUser));
+                record.setQuantityIssued(line.getQuantityIssued());
+                record.setIssuedTo(line.getIssuedTo());
+                record.setPurpose(line.getPurpose());
+                record.setIssueDate(today);
+                record.setUnitPrice(unitPrices.get(line.getProductId()));
+                records.add(record);
+            }
+            
+            // Sequence ids are assigned on persist, so the inserts go out as JDBC batches at flush
+            issuanceRecordRepository.saveAll(records);
+            dashboardService.recordIssuanceCountChange(records.size());
+            // One rollup update per product; every line of the batch carries today's date
+            Map<Long, int[]> perProduct = new TreeMap<>();
+            for (Integer i : accepted) {
+                int[] totals = perProduct.computeIfAbsent(lines.get(i).getProductId(), id -> new int[2]);
+                totals[0]++;
+                totals[1] += lines.get(i).getQuantityIssued();
+            }
+            perProduct.forEach((productId, totals) ->
+                    issuanceReportService.recordIssued(today, productId, totals[0], totals[1],
+                            unitPrices.get(productId).multiply(BigDecimal.valueOf(totals[1]))));
+            stockLedgerService.recordAll(records.stream()
+                    .map(r -> new StockMovement(r.getProduct().getProductId(), StockMovement.Type.ISSUANCE,
+                            -r.getQuantityIssued(), r.getIssuanceId()))
+                    .collect(Collectors.toList()));
+            for (IssuanceRecord record : records) {
+                eventPublisher.publishEvent(new InventoryChangedEvent(
+                        InventoryChangedEvent.Entity.ISSUANCE, record.getIssuanceId(), InventoryChangedEvent.Action.CREATED));
+            }
+            
+            List<Long> ids = records.stream().map(IssuanceRecord::getIssuanceId).collect(Collectors.toList());
+            Map<Long, IssuanceRecordDTO> dtos = issuanceRecordRepository.findDTOsByIds(ids).stream()
+                    .collect(Collectors.toMap(IssuanceRecordDTO::getIssuanceId, Function.identity()));
+            for (int k = 0; k < accepted.size(); k++) {
+                int i = accepted.get(k);
+                results[i] = new BatchIssuanceLineResult(i, BatchIssuanceLineResult.Status.ISSUED,
+                        dtos.get(ids.get(k)), null);
+            }
+        }
+        
+        return toBatchResponse(mode, true, results);
+    }
+    
+    // Decrements stock once for all lines of a product and returns the indexes that were covered;
+    // the unit price read under the row lock goes into unitPrices for the records
+    private List<Integer> reserveStock(Long productId, List<Integer> indexes, List<CreateIssuanceRequest> lines,
+                                       BatchMode mode, BatchIssuanceLineResult[] results,
+                                       Map<Long, BigDecimal> unitPrices) {
+        int requested = indexes.stream().mapToInt(i -> lines.get(i).getQuantityIssued()).sum();
+        StockMutationResult result = stockService.tryAdjust(productId, -requested);
+        List<Integer> accepted = result.isApplied() ? indexes : Collections.emptyList();
+        if (result.isApplied()) {
+            unitPrices.put(productId, result.getChange().getAfter().getUnitPrice());
+        }
+        
+        if (result.getStatus() == StockMutationResult.Status.INSUFFICIENT_STOCK && mode == BatchMode.BEST_EFFORT) {
+            // Accept lines in submission order, skipping any that no longer fit. A refused update
+            // reports the level from a locking read, so the row cannot move before the next pass
+            // and that pass fits; the cap only guards against that assumption ever breaking.
+            for (int attempt = 1; attempt <= MAX_BEST_EFFORT_ATTEMPTS; attempt++) {
+                List<Integer> fitting = new ArrayList<>();
+                int sum = 0;
+                for (Integer i : indexes) {
+                    int quantity = lines.get(i).getQuantityIssued();
+                    if (sum + quantity <= result.getAvailable()) {
+                        fitting.add(i);
+                        sum += quantity;
+                    }
+                }
+                if (fitting.isEmpty()) {
+                    break;
+                }
+                int available = result.getAvailable();
+                result = stockService.tryAdjust(productId, -sum);
+                if (result.isApplied()) {
+                    unitPrices.put(productId, result.getChange().getAfter().getUnitPrice());
+                    accepted = fitting;
+                    result = StockMutationResult.insufficient(available - sum);
+                    break;
+                }
+                if (result.getStatus() != StockMutationResult.Status.INSUFFICIENT_STOCK) {
+                    break;
+                }
+            }
+        }
+        
+        String message = result.getStatus() == StockMutationResult.Status.PRODUCT_NOT_FOUND
+                ? "Product not found"
+                : "Insufficient stock. Available: " + result.getAvailable();
+        for (Integer i : indexes) {
+            if (!accepted.contains(i)) {
+                results[i] = new BatchIssuanceLineResult(i, BatchIssuanceLineResult.Status.REJECTED, null, message);
+            }
+        }
+        return accepted;
+    }
+    
+    private String validateLine(CreateIssuanceRequest line) {
+        if (line == null) {
+            return "Issuance line is required";
+        }
+        if (line.getQuantityIssued() == null) {
+            return "Quantity issued is required";
+        }
+        String errors = validator.validate(line).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return errors.isEmpty() ? null : errors;
+    }
+    
+    private BatchIssuanceResponse toBatchResponse(BatchMode mode, boolean applied, BatchIssuanceLineResult[] results) {
+        int issued = (int) Arrays.stream(results)
+                .filter(r -> r.getStatus() == BatchIssuanceLineResult.Status.ISSUED)
+                .count();
+        return new BatchIssuanceResponse(mode, applied, issued, results.length - issued, Arrays.asList(results));
     }
     
     @Transactional
@@ -86,22 +322,46 @@ public class IssuanceService {
                 .orElseThrow(() -> new RuntimeException("Issuance record not found"));
         
         // Restore product stock
-        productService.updateStock(record.getProduct().getProductId(), record.getQuantityIssued());
+        StockChange change = stockService.increment(record.getProduct().getProductId(), record.getQuantityIssued());
+        // A record not yet priced (bulk-loaded, before the rollup rebuild) counts at the current price
+        BigDecimal unitPrice = record.getUnitPrice() != null ? record.getUnitPrice() : change.getAfter().getUnitPrice();
         
         issuanceRecordRepository.delete(record);
+        dashboardService.recordIssuanceCountChange(-1);
+        issuanceReportService.recordDeleted(record.getIssueDate(), record.getProduct().getProductId(),
+                record.getQuantityIssued(), unitPrice.multiply(BigDecimal.valueOf(record.getQuantityIssued())));
+        stockLedgerService.record(record.getProduct().getProductId(), StockMovement.Type.REVERSAL,
+                record.getQuantityIssued(), id);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.ISSUANCE, id, InventoryChangedEvent.Action.DELETED));
+    }
+    
+    // The issuing user is the authenticated caller; the id comes from the token, so this is a
+    // reference proxy and the insert needs no users select
+    private User currentUser() {
+        return toUser(AuthenticatedUser.current()
+                .orElseThrow(() -> new AccessDeniedException("No authenticated user")));
     }
     
-    private IssuanceRecordDTO convertToDTO(IssuanceRecord record) {
-        IssuanceRecordDTO dto = new IssuanceRecordDTO();
-        dto.setIssuanceId(record.getIssuanceId());
-        dto.setProductId(record.getProduct().getProductId());
-        dto.setProductName(record.getProduct().getName());
-        dto.setUserId(record.getUser().getUserId());
-        dto.setUserName(record.getUser().getName());
-        dto.setQuantityIssued(record.getQuantityIssued());
-        dto.setIssuedTo(record.getIssuedTo());
-        dto.setIssueDate(record.getIssueDate());
-        dto.setPurpose(record.getPurpose());
-        return dto;
+    private User toUser(AuthenticatedUser caller) {
+        if (caller.getUserId() != null) {
+            return userRepository.getReferenceById(caller.getUserId());
+        }
+        // Token issued before the id claim was added
+        return userRepository.findByEmail(caller.getEmail())
+                .orElseThrow(() -> new AccessDeniedException("Unknown user"));
+    }
+    
+    private static class BatchRejectedException extends RuntimeException {
+        private final BatchIssuanceResponse response;
+        
+        BatchRejectedException(BatchIssuanceResponse response) {
+            super("Issuance batch rejected");
+            this.response = response;
+        }
+        
+        BatchIssuanceResponse getResponse() {
+            return response;
+        }
     }
 }
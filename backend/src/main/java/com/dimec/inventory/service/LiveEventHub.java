@@ -0,0 +1,322 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.dto.DashboardStats;
+import com.dimec.inventory.dto.StockEvent;
+import com.dimec.inventory.dto.StockLevel;
+import com.dimec.inventory.event.DashboardChangedEvent;
+import com.dimec.inventory.event.StockLevelChangedEvent;
+import com.dimec.inventory.exception.ServiceBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Server-sent events for open dashboards and product lists. Changes are pushed after the writing
+// transaction commits; each event is serialized once and queued for every subscriber. A subscriber
+// whose buffer fills up (a client that stopped reading) is disconnected instead of holding memory,
+// and reconnects to pick up a fresh dashboard snapshot.
+@Service
+public class LiveEventHub {
+    
+    private static final Logger log = LoggerFactory.getLogger(LiveEventHub.class);
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${inventory.events.max-subscribers:200}")
+    private int maxSubscribers;
+    
+    // Events held per subscriber while its connection is busy
+    @Value("${inventory.events.buffer-size:256}")
+    private int bufferSize;
+    
+    // Connections are closed after this long; EventSource clients reconnect on their own
+    @Value("${inventory.events.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${inventory.events.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+    
+    // How long dashboard deltas are held waiting for a missing version before a snapshot replaces them
+    @Value("${inventory.events.dashboard-gap-ms:1000}")
+    private long dashboardGapMs;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong eventIds = new AtomicLong();
+    // Orders dashboard snapshots for new subscribers against dashboard broadcasts, and guards
+    // the version sequence below
+    private final Object dashboardLock = new Object();
+    // Last dashboard version broadcast (-1 until the first dashboard event), and deltas that
+    // reached the hub ahead of a version still missing, with when the gap was first seen
+    private long dashboardVersion = -1;
+    private final TreeMap<Long, DashboardStats> heldDeltas = new TreeMap<>();
+    private long gapSinceNanos;
+    private ThreadPoolExecutor senders;
+    private Counter dropped;
+    
+    private class Subscriber {
+        final SseEmitter emitter = new SseEmitter(timeoutMs);
+        final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+    }
+    
+    @PostConstruct
+    void init() {
+        // One sender per subscriber at most, and only while it has events queued
+        AtomicInteger threads = new AtomicInteger();
+        senders = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "sse-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("inventory.events.subscribers", subscribers, Set::size)
+                .description("Open server-sent event connections")
+                .register(meterRegistry);
+        dropped = Counter.builder("inventory.events.dropped")
+                .description("Event subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(this::close);
+        senders.shutdown();
+    }
+    
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceBusyException("Too many event subscribers", retryAfterSeconds);
+        }
+        Subscriber subscriber = new Subscriber();
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> close(subscriber));
+        subscriber.emitter.onError(e -> close(subscriber));
+        subscribers.add(subscriber);
+        
+        // Registered first, so no change committed after this snapshot is missed. Reading and
+        // queueing it under the lock means a delta queued ahead of it committed before the read
+        // and is included; one queued after is either included (version not newer, which the
+        // client drops) or the next version after the snapshot, since deltas go out in order.
+        synchronized (dashboardLock) {
+            offer(subscriber, frame("dashboard", dashboardService.getDashboardStats()));
+        }
+        return subscriber.emitter;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        StockLevel before = event.getBefore();
+        StockLevel after = event.getAfter();
+        StockEvent payload = after == null
+                ? new StockEvent(event.getProductId(), null, before.getReorderLevel(), false, event.getVersion())
+                : new StockEvent(event.getProductId(), after.getQuantity(), after.getReorderLevel(), after.isLowStock(),
+                        event.getVersion());
+        
+        if (before == null || after == null || !Objects.equals(before.getQuantity(), after.getQuantity())
+                || !Objects.equals(before.getReorderLevel(), after.getReorderLevel())) {
+            broadcast(frame("stock", payload));
+        }
+        boolean wasLow = before != null && before.isLowStock();
+        if (wasLow != payload.isLowStock()) {
+            broadcast(frame("low-stock", payload));
+        }
+    }
+    
+    // "dashboard-delta" events are added to the counters; a "dashboard" event replaces them.
+    // Both carry the counters' version, so clients skip deltas their snapshot already includes.
+    // Commit callbacks can run in a different order than the versions were taken, so deltas are
+    // broadcast strictly in version order: one that arrives early waits for the missing ones.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDashboardChanged(DashboardChangedEvent event) {
+        DashboardStats stats = event.getStats();
+        synchronized (dashboardLock) {
+            if (!event.isDelta()) {
+                if (stats.getVersion() > dashboardVersion) {
+                    broadcastSnapshot(stats);
+                }
+                return;
+            }
+            if (dashboardVersion < 0) {
+                dashboardVersion = stats.getVersion() - 1;
+            }
+            if (stats.getVersion() > dashboardVersion) {
+                heldDeltas.put(stats.getVersion(), stats);
+                releaseDeltas();
+            }
+        }
+    }
+    
+    // A version that never arrives (its commit callback failed) would hold back every later
+    // delta; after inventory.events.dashboard-gap-ms a fresh snapshot replaces them instead
+    @Scheduled(fixedDelayString = "${inventory.events.dashboard-gap-ms:1000}")
+    void closeDashboardGap() {
+        synchronized (dashboardLock) {
+            long heldNanos = System.nanoTime() - gapSinceNanos;
+            if (heldDeltas.isEmpty() || heldNanos < TimeUnit.MILLISECONDS.toNanos(dashboardGapMs)) {
+                return;
+            }
+            log.debug("Dashboard version {} did not arrive; sending a snapshot instead of {} held deltas",
+                    dashboardVersion + 1, heldDeltas.size());
+            DashboardStats snapshot = dashboardService.getDashboardStats();
+            if (snapshot.getVersion() > dashboardVersion) {
+                broadcastSnapshot(snapshot);
+            } else {
+                heldDeltas.clear();
+            }
+        }
+    }
+    
+    // Callers hold dashboardLock
+    private void broadcastSnapshot(DashboardStats snapshot) {
+        if (!subscribers.isEmpty()) {
+            broadcast(frame("dashboard", snapshot));
+        }
+        dashboardVersion = snapshot.getVersion();
+        heldDeltas.headMap(dashboardVersion, true).clear();
+        releaseDeltas();
+    }
+    
+    // Broadcasts held deltas as long as they continue the sequence; callers hold dashboardLock
+    private void releaseDeltas() {
+        boolean released = false;
+        while (!heldDeltas.isEmpty() && heldDeltas.firstKey() == dashboardVersion + 1) {
+            DashboardStats delta = heldDeltas.pollFirstEntry().getValue();
+            if (!subscribers.isEmpty()) {
+                broadcast(frame("dashboard-delta", delta));
+            }
+            dashboardVersion = delta.getVersion();
+            released = true;
+        }
+        if (heldDeltas.isEmpty()) {
+            gapSinceNanos = 0;
+        } else if (released || gapSinceNanos == 0) {
+            gapSinceNanos = System.nanoTime();
+        }
+    }
+    
+    // Keeps idle connections open through proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${inventory.events.heartbeat-ms:15000}")
+    void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("ping").build());
+        }
+    }
+    
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, frame);
+        }
+    }
+    
+    // Never blocks the committing thread: a full buffer drops the subscriber
+    private void offer(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.buffer.offer(frame)) {
+            dropped.increment();
+            log.debug("Dropping event subscriber with {} undelivered events", subscriber.buffer.size());
+            close(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+                close(subscriber);
+            }
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            if (subscriber.closed) {
+                subscriber.buffer.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> frame = subscriber.buffer.poll();
+            if (frame == null) {
+                subscriber.draining.set(false);
+                // An event (or a close) may have arrived after the poll but before the flag was cleared
+                boolean idle = subscriber.buffer.isEmpty() && !subscriber.closed;
+                if (idle || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                subscriber.emitter.send(frame);
+            } catch (Exception e) {
+                // Client went away; the emitter has already been failed by the send
+                subscribers.remove(subscriber);
+                subscriber.closed = true;
+                subscriber.buffer.clear();
+                return;
+            }
+        }
+    }
+    
+    // Completion happens on a sender thread; the emitter can be blocked in a write to this client
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.buffer.clear();
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+    
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, Object payload) {
+        try {
+            return SseEmitter.event()
+                    .id(String.valueOf(eventIds.incrementAndGet()))
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(payload))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + name + " event", e);
+        }
+    }
+}
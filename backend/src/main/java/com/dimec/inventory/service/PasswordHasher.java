@@ -0,0 +1,147 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.config.BCryptCost;
+import com.dimec.inventory.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Bulkhead for BCrypt: hashing runs on a small dedicated pool with a bounded queue, so a burst of
+// logins waits (or is turned away with 503) instead of occupying every request thread
+@Service
+public class PasswordHasher {
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${inventory.auth.hash.threads:2}")
+    private int threads;
+    
+    @Value("${inventory.auth.hash.queue-capacity:64}")
+    private int queueCapacity;
+    
+    // Upper bound on queueing plus hashing time for one caller
+    @Value("${inventory.auth.hash.timeout-ms:5000}")
+    private long timeoutMs;
+    
+    @Value("${inventory.auth.hash.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+    
+    private ThreadPoolExecutor executor;
+    private int currentCost;
+    private Counter rejections;
+    private Counter rehashes;
+    private Timer verifyTimer;
+    private Timer encodeTimer;
+    
+    @Getter
+    @AllArgsConstructor
+    public static class Verification {
+        private final boolean matches;
+        // New hash at the current cost, when the stored one used a different cost; null otherwise
+        private final String upgradedHash;
+    }
+    
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        currentCost = BCryptCost.of(passwordEncoder.encode("cost-probe"));
+        
+        Gauge.builder("inventory.auth.hash.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("inventory.auth.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        rejections = Counter.builder("inventory.auth.hash.rejected")
+                .description("Password hashing requests turned away because the bulkhead was full")
+                .register(meterRegistry);
+        rehashes = Counter.builder("inventory.auth.hash.upgraded")
+                .description("Stored password hashes re-encoded at the current cost on login")
+                .register(meterRegistry);
+        // BCrypt time on the worker, without the wait for one; login latency adds the queueing
+        verifyTimer = Timer.builder("inventory.auth.hash.duration")
+                .description("BCrypt work per password check or encode")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        encodeTimer = Timer.builder("inventory.auth.hash.duration")
+                .description("BCrypt work per password check or encode")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public Verification verify(String rawPassword, String encodedPassword) {
+        return submit(verifyTimer, () -> {
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return new Verification(false, null);
+            }
+            int storedCost = BCryptCost.of(encodedPassword);
+            if (storedCost == currentCost) {
+                return new Verification(true, null);
+            }
+            // The plain-text password is only available now, so this is the moment to re-encode
+            rehashes.increment();
+            return new Verification(true, passwordEncoder.encode(rawPassword));
+        });
+    }
+    
+    public String encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+    
+    private <T> T submit(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw busy();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+    
+    private ServiceBusyException busy() {
+        return new ServiceBusyException("Authentication is busy, please retry shortly", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,332 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.dto.ProductSuggestion;
+import com.dimec.inventory.event.InventoryChangedEvent;
+import com.dimec.inventory.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over product name, description, category name and supplier name.
+// Reads are lock-free; writes are serialized and arrive after commit through InventoryChangedEvent.
+@Service
+public class ProductSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+    
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int SUPPLIER_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+    private final Object rebuildLock = new Object();
+    
+    // Ids written while a rebuild is scanning the table; replayed onto the new index before it goes live
+    private Set<Long> changedDuringRebuild;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Ranked product ids matching every query term, each term matched as a word prefix
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Index current = index;
+        Map<Long, Integer> scores = null;
+        for (String token : queryTokens) {
+            Map<Long, Integer> tokenScores = current.match(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // AND semantics: keep only products matched by every term
+                Map<Long, Integer> tokenMatches = tokenScores;
+                scores.keySet().retainAll(tokenMatches.keySet());
+                scores.replaceAll((id, score) -> score + tokenMatches.get(id));
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        
+        Map<Long, Integer> ranked = scores;
+        return ranked.keySet().stream()
+                .sorted(Comparator.comparing((Long id) -> -ranked.get(id))
+                        .thenComparing(id -> current.names.getOrDefault(id, ""))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+    }
+    
+    // Product names whose words start with the prefix, served from memory without touching the database
+    public List<ProductSuggestion> autocomplete(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        // Walk name terms in dictionary order from the last (partial) word, so the shortest
+        // completions come first and the scan stops as soon as enough products are found
+        Index current = index;
+        String last = tokens.get(tokens.size() - 1);
+        List<String> leading = tokens.subList(0, tokens.size() - 1);
+        Set<Long> seen = new LinkedHashSet<>();
+        for (Set<Long> ids : current.nameIndex.subMap(last, true, last + Character.MAX_VALUE, false).values()) {
+            for (Long id : ids) {
+                if (seen.size() >= limit) {
+                    break;
+                }
+                if (current.nameMatchesAll(id, leading)) {
+                    seen.add(id);
+                }
+            }
+            if (seen.size() >= limit) {
+                break;
+            }
+        }
+        
+        List<ProductSuggestion> suggestions = new ArrayList<>(seen.size());
+        for (Long id : seen) {
+            String name = current.names.get(id);
+            if (name != null) {
+                suggestions.add(new ProductSuggestion(id, name));
+            }
+        }
+        return suggestions;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        switch (event.getEntity()) {
+            case PRODUCT:
+                if (event.getAction() == InventoryChangedEvent.Action.DELETED) {
+                    remove(event.getId());
+                } else if (event.getAction() != InventoryChangedEvent.Action.STOCK_CHANGED) {
+                    // Quantity is not indexed, so stock movements need no reindexing
+                    productRepository.findDTOById(event.getId()).ifPresent(this::put);
+                }
+                break;
+            case CATEGORY:
+            case SUPPLIER:
+                if (event.getAction() == InventoryChangedEvent.Action.UPDATED) {
+                    List<ProductDTO> affected = event.getEntity() == InventoryChangedEvent.Entity.CATEGORY
+                            ? productRepository.findDTOsByCategoryId(event.getId())
+                            : productRepository.findDTOsBySupplierId(event.getId());
+                    affected.forEach(this::put);
+                } else if (event.getAction() == InventoryChangedEvent.Action.DELETED) {
+                    // Products cascade with their category/supplier and their rows are gone by now, so the
+                    // index's own copy of the owning ids decides what to drop (no rescan of the table)
+                    removeOwnedBy(event.getEntity(), event.getId());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildIndex();
+        }
+    }
+    
+    private void rebuildIndex() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        
+        // Walk the table in keyset pages so the rebuild never holds the whole catalog as entities
+        Index fresh = new Index();
+        long afterId = 0L;
+        List<ProductDTO> page;
+        do {
+            page = productRepository.findDTOPageAfter(afterId, PageRequest.ofSize(REBUILD_PAGE_SIZE));
+            for (ProductDTO product : page) {
+                fresh.add(product);
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getProductId();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        
+        Set<Long> replay;
+        synchronized (this) {
+            replay = changedDuringRebuild;
+            changedDuringRebuild = null;
+            index = fresh;
+        }
+        if (!replay.isEmpty()) {
+            List<ProductDTO> changed = productRepository.findDTOsByIds(replay);
+            Set<Long> stillPresent = new HashSet<>();
+            for (ProductDTO product : changed) {
+                put(product);
+                stillPresent.add(product.getProductId());
+            }
+            replay.stream().filter(id -> !stillPresent.contains(id)).forEach(this::remove);
+        }
+        
+        ready = true;
+        log.info("Product search index built: {} products, {} terms in {} ms",
+                fresh.names.size(), fresh.postings.size(), System.currentTimeMillis() - started);
+    }
+    
+    private synchronized void put(ProductDTO product) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(product.getProductId());
+        }
+        index.remove(product.getProductId());
+        index.add(product);
+    }
+    
+    private synchronized void remove(Long productId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(productId);
+        }
+        index.remove(productId);
+    }
+    
+    private synchronized void removeOwnedBy(InventoryChangedEvent.Entity owner, Long ownerId) {
+        Map<Long, Long> owners = owner == InventoryChangedEvent.Entity.CATEGORY ? index.categoryIds : index.supplierIds;
+        List<Long> owned = owners.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(ownerId))
+                .map(Map.Entry::getKey)
+                .toList();
+        owned.forEach(this::remove);
+    }
+    
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private static class Index {
+        // term -> (productId -> summed field weight)
+        final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+        // name term -> products, ordered for prefix autocomplete
+        final ConcurrentSkipListMap<String, Set<Long>> nameIndex = new ConcurrentSkipListMap<>();
+        // productId -> indexed terms, so a product can be removed without scanning the dictionary
+        final Map<Long, Set<String>> terms = new ConcurrentHashMap<>();
+        final Map<Long, Set<String>> nameTerms = new ConcurrentHashMap<>();
+        final Map<Long, String> names = new ConcurrentHashMap<>();
+        // productId -> owning category and supplier, for their cascading deletes
+        final Map<Long, Long> categoryIds = new ConcurrentHashMap<>();
+        final Map<Long, Long> supplierIds = new ConcurrentHashMap<>();
+        
+        void add(ProductDTO product) {
+            Map<String, Integer> weights = new HashMap<>();
+            addField(weights, product.getName(), NAME_WEIGHT);
+            addField(weights, product.getCategoryName(), CATEGORY_WEIGHT);
+            addField(weights, product.getSupplierName(), SUPPLIER_WEIGHT);
+            addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+            
+            Long id = product.getProductId();
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(id, weight));
+            terms.put(id, weights.keySet());
+            
+            Set<String> nameTokens = new LinkedHashSet<>(tokenize(product.getName()));
+            for (String token : nameTokens) {
+                nameIndex.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            nameTerms.put(id, nameTokens);
+            names.put(id, product.getName());
+            if (product.getCategoryId() != null) {
+                categoryIds.put(id, product.getCategoryId());
+            }
+            if (product.getSupplierId() != null) {
+                supplierIds.put(id, product.getSupplierId());
+            }
+        }
+        
+        void remove(Long id) {
+            Set<String> indexed = terms.remove(id);
+            if (indexed != null) {
+                for (String term : indexed) {
+                    postings.computeIfPresent(term, (t, products) -> {
+                        products.remove(id);
+                        return products.isEmpty() ? null : products;
+                    });
+                }
+            }
+            Set<String> indexedNames = nameTerms.remove(id);
+            if (indexedNames != null) {
+                for (String token : indexedNames) {
+                    nameIndex.computeIfPresent(token, (t, products) -> {
+                        products.remove(id);
+                        return products.isEmpty() ? null : products;
+                    });
+                }
+            }
+            names.remove(id);
+            categoryIds.remove(id);
+            supplierIds.remove(id);
+        }
+        
+        // Every product containing a term that starts with the token; exact term hits score double
+        Map<Long, Integer> match(String token) {
+            Map<Long, Integer> scores = new HashMap<>();
+            NavigableMap<String, Map<Long, Integer>> range =
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false);
+            range.forEach((term, products) -> {
+                int boost = term.equals(token) ? 2 : 1;
+                products.forEach((id, weight) -> scores.merge(id, weight * boost, Math::max));
+            });
+            return scores;
+        }
+        
+        boolean nameMatchesAll(Long id, List<String> prefixes) {
+            Set<String> tokens = nameTerms.get(id);
+            if (tokens == null) {
+                return false;
+            }
+            return prefixes.stream().allMatch(prefix -> tokens.stream().anyMatch(t -> t.startsWith(prefix)));
+        }
+        
+        private static void addField(Map<String, Integer> weights, String text, int weight) {
+            for (String token : new HashSet<>(tokenize(text))) {
+                weights.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+}
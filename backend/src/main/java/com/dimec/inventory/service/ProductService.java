@@ -1,19 +1,39 @@
 package com.dimec.inventory.service;
 
 import com.dimec.inventory.dto.CreateProductRequest;
+import com.dimec.inventory.dto.CursorPage;
+import com.dimec.inventory.dto.ProductChanges;
 import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.dto.ProductSuggestion;
+import com.dimec.inventory.dto.StockLevel;
 import com.dimec.inventory.dto.UpdateProductRequest;
+import com.dimec.inventory.event.InventoryChangedEvent;
+import com.dimec.inventory.event.StockLevelChangedEvent;
 import com.dimec.inventory.model.Category;
 import com.dimec.inventory.model.Product;
+import com.dimec.inventory.model.ProductTombstone;
+import com.dimec.inventory.model.StockMovement;
 import com.dimec.inventory.model.Supplier;
 import com.dimec.inventory.repository.CategoryRepository;
+import com.dimec.inventory.repository.IssuanceRecordRepository;
 import com.dimec.inventory.repository.ProductRepository;
+import com.dimec.inventory.repository.ProductTombstoneRepository;
 import com.dimec.inventory.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,30 +48,147 @@ public class ProductService {
     @Autowired
     private SupplierRepository supplierRepository;
     
+    @Autowired
+    private IssuanceRecordRepository issuanceRecordRepository;
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private IssuanceReportService issuanceReportService;
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProductVersions productVersions;
+    
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${inventory.search.max-results:100}")
+    private int maxSearchResults;
+    
+    @Value("${inventory.search.autocomplete.max-suggestions:20}")
+    private int maxSuggestions;
+    
+    @Value("${inventory.products.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${inventory.products.page.max-size:200}")
+    private int maxPageSize;
+    
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return productRepository.findAllDTOs();
+    }
+    
+    public CursorPage<ProductDTO> getProductPage(String after, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+        
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<ProductDTO> rows = productRepository.findDTOPageAfter(
+                decodeCursor(after), PageRequest.ofSize(pageSize + 1));
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String next = hasMore ? encodeCursor(items.get(items.size() - 1).getProductId()) : null;
+        
+        return new CursorPage<>(items, next, pageSize, hasMore);
+    }
+    
+    // Delta sync: products written and deleted after `since`, oldest change first. Only changes up to
+    // the high-water mark are served, so a client never skips a write that commits late.
+    public ProductChanges getChanges(long since, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+        long upTo = productVersions.highWater();
+        if (since < 0 || since > upTo) {
+            throw new IllegalArgumentException("Unknown change version " + since + ", resync from 0");
+        }
+        
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        List<ProductDTO> changed = productRepository.findDTOsChangedBetween(since, upTo, page);
+        List<ProductTombstone> deleted = tombstoneRepository.findChangedBetween(since, upTo, page);
+        
+        // Merge both version-ordered lists and stop after pageSize changes
+        List<ProductDTO> changedItems = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        long version = since;
+        while (i + j < pageSize && (i < changed.size() || j < deleted.size())) {
+            boolean takeChanged = j >= deleted.size()
+                    || (i < changed.size() && changed.get(i).getChangeVersion() < deleted.get(j).getChangeVersion());
+            if (takeChanged) {
+                ProductDTO dto = changed.get(i++);
+                changedItems.add(dto);
+                version = dto.getChangeVersion();
+            } else {
+                ProductTombstone tombstone = deleted.get(j++);
+                deletedIds.add(tombstone.getProductId());
+                version = tombstone.getChangeVersion();
+            }
+        }
+        boolean hasMore = i < changed.size() || j < deleted.size();
+        return new ProductChanges(changedItems, deletedIds, hasMore ? version : upTo, hasMore);
     }
     
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        return productRepository.findDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
-        return convertToDTO(product);
     }
     
     public List<ProductDTO> getLowStockProducts() {
-        return productRepository.findLowStockProducts().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return productRepository.findLowStockDTOs();
+    }
+    
+    public List<ProductDTO> getMostCriticalProducts(Integer n) {
+        int size = n == null ? 10 : n;
+        if (size < 1) {
+            throw new IllegalArgumentException("n must be at least 1");
+        }
+        return productRepository.findMostCriticalDTOs(PageRequest.ofSize(Math.min(size, maxPageSize)));
     }
     
     public List<ProductDTO> searchProducts(String searchTerm) {
-        return productRepository.searchByName(searchTerm).stream()
-                .map(this::convertToDTO)
+        // The LIKE scan only serves requests that arrive before the index has been built
+        if (!searchIndex.isReady()) {
+            return productRepository.searchDTOsByName(searchTerm);
+        }
+        
+        List<Long> ranked = searchIndex.search(searchTerm, maxSearchResults);
+        if (ranked.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ProductDTO> products = productRepository.findDTOsByIds(ranked).stream()
+                .collect(Collectors.toMap(ProductDTO::getProductId, Function.identity()));
+        return ranked.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
     
+    public List<ProductSuggestion> autocomplete(String prefix, Integer limit) {
+        int size = limit == null ? 10 : Math.max(1, Math.min(limit, maxSuggestions));
+        return searchIndex.autocomplete(prefix, size);
+    }
+    
     @Transactional
     public ProductDTO createProduct(CreateProductRequest request) {
         Category category = categoryRepository.findById(request.getCategoryId())
@@ -67,15 +204,25 @@ public class ProductService {
         product.setUnitPrice(request.getUnitPrice());
         product.setReorderLevel(request.getReorderLevel());
         product.setDescription(request.getDescription());
+        product.setChangeVersion(productVersions.next());
         
         Product saved = productRepository.save(product);
+        dashboardService.recordProductChange(null, StockLevel.of(saved));
+        eventPublisher.publishEvent(new StockLevelChangedEvent(saved.getProductId(), null, StockLevel.of(saved),
+                saved.getChangeVersion()));
+        stockLedgerService.record(saved.getProductId(), StockMovement.Type.RECEIPT, saved.getQuantity(), null);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.PRODUCT, saved.getProductId(), InventoryChangedEvent.Action.CREATED));
         return convertToDTO(saved);
     }
     
     @Transactional
     public ProductDTO updateProduct(Long id, UpdateProductRequest request) {
-        Product product = productRepository.findById(id)
+        // Locked, so before is the committed level that this update replaces: the ledger
+        // adjustment and dashboard deltas stay exact under concurrent issuances
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        StockLevel before = StockLevel.of(product);
         
         product.setName(request.getName());
         product.setQuantity(request.getQuantity());
@@ -86,6 +233,9 @@ public class ProductService {
         if (request.getCategoryId() != null) {
             Category category = categoryRepository.findById(request.getCategoryId())
                     .orElseThrow(() -> new RuntimeException("Category not found"));
+            if (!category.getCategoryId().equals(product.getCategory().getCategoryId())) {
+                issuanceReportService.productMoved(id, category.getCategoryId());
+            }
             product.setCategory(category);
         }
         
@@ -94,33 +244,67 @@ public class ProductService {
                     .orElseThrow(() -> new RuntimeException("Supplier not found"));
             product.setSupplier(supplier);
         }
+        product.setChangeVersion(productVersions.next());
         
         Product updated = productRepository.save(product);
+        dashboardService.recordProductChange(before, StockLevel.of(updated));
+        eventPublisher.publishEvent(new StockLevelChangedEvent(id, before, StockLevel.of(updated), updated.getChangeVersion()));
+        // The request replaces the quantity; the ledger records the difference
+        stockLedgerService.record(id, StockMovement.Type.ADJUSTMENT,
+                updated.getQuantity() - before.getQuantity(), null);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.PRODUCT, id, InventoryChangedEvent.Action.UPDATED));
         return convertToDTO(updated);
     }
     
     @Transactional
     public void deleteProduct(Long id) {
-        Product product = productRepository.findById(id)
+        // Locked, so the tombstone version comes after every stock change that committed first
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        
+        // Issuance records cascade with the product
+        long issuances = issuanceRecordRepository.countByProduct_ProductId(id);
+        dashboardService.recordProductChange(StockLevel.of(product), null);
+        dashboardService.recordIssuanceCountChange(-issuances);
+        issuanceReportService.productDeleted(id);
+        long version = productVersions.productsDeleted(List.of(id));
+        eventPublisher.publishEvent(new StockLevelChangedEvent(id, StockLevel.of(product), null, version));
+        
         productRepository.delete(product);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.PRODUCT, id, InventoryChangedEvent.Action.DELETED));
     }
     
     @Transactional
     public void updateStock(Long productId, int quantityChange) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        
-        int newQuantity = product.getQuantity() + quantityChange;
-        if (newQuantity < 0) {
-            throw new RuntimeException("Insufficient stock");
+        stockService.adjust(productId, quantityChange);
+        stockLedgerService.record(productId,
+                quantityChange > 0 ? StockMovement.Type.RECEIPT : StockMovement.Type.ADJUSTMENT, quantityChange, null);
+    }
+    
+    private String encodeCursor(Long productId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("p:" + productId).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("p:")) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(2));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and malformed Base64 both land here
+            throw new IllegalArgumentException("Invalid cursor");
         }
-        
-        product.setQuantity(newQuantity);
-        productRepository.save(product);
     }
     
-    private ProductDTO convertToDTO(Product product) {
+    ProductDTO convertToDTO(Product product) {
         ProductDTO dto = new ProductDTO();
         dto.setProductId(product.getProductId());
         dto.setName(product.getName());
@@ -133,6 +317,7 @@ public class ProductService {
         dto.setReorderLevel(product.getReorderLevel());
         dto.setDescription(product.getDescription());
         dto.setLowStock(product.isLowStock());
+        dto.setChangeVersion(product.getChangeVersion());
         return dto;
     }
 }
@@ -0,0 +1,127 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.model.ProductTombstone;
+import com.dimec.inventory.repository.ProductRepository;
+import com.dimec.inventory.repository.ProductTombstoneRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands out product change versions for the delta-sync feed. Versions are allocated in-process
+// (single instance, like TableVersions) and a transaction holding one can commit after a later
+// version is already visible, so the feed only serves up to the high-water mark: the last version
+// below every range still held by an open transaction.
+@Component
+public class ProductVersions {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductVersions.class);
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+    
+    private final AtomicLong last = new AtomicLong();
+    
+    // First version of each range reserved by a transaction that has not completed yet
+    private final ConcurrentSkipListMap<Long, Long> inFlight = new ConcurrentSkipListMap<>();
+    
+    @PostConstruct
+    void init() {
+        long products = nullToZero(productRepository.findMaxChangeVersion());
+        long tombstones = nullToZero(tombstoneRepository.findMaxChangeVersion());
+        last.set(Math.max(products, tombstones));
+    }
+    
+    public long next() {
+        return reserve(1);
+    }
+    
+    // Reserves `count` consecutive versions and returns the first; they stay in flight until the
+    // surrounding transaction commits or rolls back
+    public synchronized long reserve(long count) {
+        long first = last.get() + 1;
+        last.addAndGet(count);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.put(first, first + count - 1);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    inFlight.remove(first);
+                }
+            });
+        }
+        return first;
+    }
+    
+    // Every version at or below this one is either committed or will never appear
+    public synchronized long highWater() {
+        return inFlight.isEmpty() ? last.get() : inFlight.firstKey() - 1;
+    }
+    
+    // Rows inserted in bulk (seeding, or data that predates the feed) get a version each
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void stampUnversioned() {
+        Long maxId = productRepository.findMaxProductId();
+        if (maxId == null) {
+            return;
+        }
+        int stamped = productRepository.stampUnversioned(reserve(maxId) - 1);
+        if (stamped > 0) {
+            log.info("Assigned change versions to {} products", stamped);
+        }
+    }
+    
+    // Category and supplier renames change every product's DTO, so those products move forward
+    @Transactional
+    public void categoryChanged(Long categoryId) {
+        Long maxId = productRepository.findMaxProductId();
+        if (maxId != null) {
+            productRepository.restampByCategory(categoryId, reserve(maxId) - 1);
+        }
+    }
+    
+    @Transactional
+    public void supplierChanged(Long supplierId) {
+        Long maxId = productRepository.findMaxProductId();
+        if (maxId != null) {
+            productRepository.restampBySupplier(supplierId, reserve(maxId) - 1);
+        }
+    }
+    
+    // Deleted products stay in the feed as tombstones; returns the first tombstone's version
+    @Transactional
+    public long productsDeleted(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        long first = reserve(productIds.size());
+        long version = first;
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductTombstone> tombstones = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            tombstones.add(new ProductTombstone(productId, version++, now));
+        }
+        tombstoneRepository.saveAll(tombstones);
+        return first;
+    }
+    
+    private static long nullToZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
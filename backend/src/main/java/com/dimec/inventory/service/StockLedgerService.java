@@ -0,0 +1,250 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.dto.CursorPage;
+import com.dimec.inventory.dto.ProductQuantity;
+import com.dimec.inventory.dto.StockPosition;
+import com.dimec.inventory.model.StockMovement;
+import com.dimec.inventory.model.StockSnapshot;
+import com.dimec.inventory.repository.ProductRepository;
+import com.dimec.inventory.repository.StockMovementRepository;
+import com.dimec.inventory.repository.StockSnapshotRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Stock movement ledger. Product.quantity stays the authoritative counter that the conditional
+// stock UPDATE checks; every change to it also appends a movement here in the same transaction,
+// which costs one insert and takes no extra locks. Snapshots and reconciliation run in the background.
+@Service
+public class StockLedgerService {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerService.class);
+    
+    // Lower bound for "after the latest snapshot" when a product has none
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private StockMovementRepository movementRepository;
+    
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Snapshots only cover movements older than this, so a transaction that created a movement
+    // but has not committed yet cannot fall behind a snapshot
+    @Value("${inventory.stock.ledger.snapshot-lag-ms:60000}")
+    private long snapshotLagMs;
+    
+    @Value("${inventory.products.page.max-size:200}")
+    private int maxPageSize;
+    
+    private final AtomicLong lastDriftedProducts = new AtomicLong();
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("inventory.stock.ledger.drift.products", lastDriftedProducts, AtomicLong::doubleValue)
+                .description("Products whose quantity disagreed with the ledger at the last reconciliation")
+                .register(meterRegistry);
+    }
+    
+    @Transactional
+    public void record(Long productId, StockMovement.Type type, int quantityChange, Long issuanceId) {
+        if (quantityChange != 0) {
+            movementRepository.save(new StockMovement(productId, type, quantityChange, issuanceId));
+        }
+    }
+    
+    @Transactional
+    public void recordAll(List<StockMovement> movements) {
+        movementRepository.saveAll(movements);
+    }
+    
+    public CursorPage<StockMovement> getMovements(Long productId, String before, Integer limit) {
+        productRepository.findStockLevel(productId).orElseThrow(() -> new RuntimeException("Product not found"));
+        int pageSize = Math.min(limit == null ? 50 : limit, maxPageSize);
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        Long beforeId = parseCursor(before);
+        List<StockMovement> rows = movementRepository.findPageBefore(productId, beforeId,
+                PageRequest.ofSize(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<StockMovement> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String next = hasMore ? String.valueOf(items.get(items.size() - 1).getMovementId()) : null;
+        return new CursorPage<>(items, next, pageSize, hasMore);
+    }
+    
+    // Ledger quantity now (asOf null, alongside Product.quantity) or at a past moment
+    @Transactional(readOnly = true)
+    public StockPosition getPosition(Long productId, LocalDateTime asOf) {
+        Integer productQuantity = productRepository.findStockLevel(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"))
+                .getQuantity();
+        LocalDateTime at = (asOf == null ? LocalDateTime.now() : asOf).truncatedTo(ChronoUnit.MILLIS);
+        
+        StockSnapshot snapshot = snapshotRepository
+                .findFirstByProductIdAndAsOfLessThanEqualOrderByAsOfDesc(productId, at)
+                .orElse(null);
+        LocalDateTime after = snapshot == null ? ORIGIN : snapshot.getAsOf();
+        long base = snapshot == null ? 0 : snapshot.getQuantity();
+        long tail = movementRepository.sumBetween(productId, after, at);
+        long tailCount = movementRepository.countBetween(productId, after, at);
+        
+        return new StockPosition(productId, at, base + tail, snapshot == null ? null : snapshot.getAsOf(),
+                tailCount, asOf == null ? productQuantity : null);
+    }
+    
+    // Products that predate the ledger (or were bulk loaded) get their current quantity as an
+    // opening movement. Each chunk reads quantities and writes openings in one transaction.
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordOpeningBalances() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int opened = 0;
+        while (true) {
+            long from = afterId;
+            List<ProductQuantity> chunk = template.execute(status -> {
+                List<ProductQuantity> rows = movementRepository.findWithoutMovements(from, PageRequest.ofSize(CHUNK_SIZE));
+                movementRepository.saveAll(rows.stream()
+                        .map(p -> new StockMovement(p.getProductId(), StockMovement.Type.OPENING,
+                                p.getQuantity().intValue(), null))
+                        .collect(Collectors.toList()));
+                return rows;
+            });
+            if (chunk.isEmpty()) {
+                break;
+            }
+            opened += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getProductId();
+        }
+        if (opened > 0) {
+            log.info("Stock ledger opened for {} products", opened);
+        }
+    }
+    
+    // Snapshots every product that moved since the previous run, as of (now - lag)
+    @Scheduled(fixedDelayString = "${inventory.stock.ledger.snapshot-interval-ms:3600000}",
+            initialDelayString = "${inventory.stock.ledger.snapshot-interval-ms:3600000}")
+    public void takeSnapshots() {
+        // Truncated so the stored key compares exactly with the bound used to compute it
+        LocalDateTime asOf = LocalDateTime.now().minusNanos(snapshotLagMs * 1_000_000).truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime previous = snapshotRepository.findLastSnapshotTime();
+        LocalDateTime since = previous == null ? ORIGIN : previous;
+        if (!asOf.isAfter(since)) {
+            return;
+        }
+        
+        List<Long> moved = movementRepository.findProductIdsMovedBetween(since, asOf);
+        if (moved.isEmpty()) {
+            return;
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < moved.size(); i += CHUNK_SIZE) {
+            List<Long> ids = moved.subList(i, Math.min(i + CHUNK_SIZE, moved.size()));
+            template.executeWithoutResult(status -> {
+                Map<Long, Long> positions = ledgerQuantities(ids, asOf);
+                List<StockSnapshot> snapshots = new ArrayList<>(positions.size());
+                positions.forEach((productId, quantity) ->
+                        snapshots.add(new StockSnapshot(productId, asOf, quantity.intValue())));
+                snapshotRepository.saveAll(snapshots);
+            });
+        }
+        log.info("Stock snapshots taken for {} products as of {}", moved.size(), asOf);
+    }
+    
+    // Compares Product.quantity with snapshot plus tail for every product. Each chunk reads in one
+    // repeatable-read transaction; the counter and its movement commit together, so a consistent
+    // read never sees one without the other.
+    @Scheduled(fixedDelayString = "${inventory.stock.ledger.reconcile-interval-ms:900000}",
+            initialDelayString = "${inventory.stock.ledger.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        template.setReadOnly(true);
+        
+        List<String> samples = new ArrayList<>();
+        long drifted = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<ProductQuantity> products = new ArrayList<>();
+            List<String> mismatches = template.execute(status -> {
+                products.addAll(movementRepository.findProductQuantitiesAfter(from, PageRequest.ofSize(CHUNK_SIZE)));
+                Map<Long, Long> ledger = ledgerQuantities(
+                        products.stream().map(ProductQuantity::getProductId).collect(Collectors.toList()),
+                        LocalDateTime.now().plusDays(1));
+                List<String> found = new ArrayList<>();
+                for (ProductQuantity product : products) {
+                    long expected = ledger.getOrDefault(product.getProductId(), 0L);
+                    if (expected != product.getQuantity()) {
+                        found.add(product.getProductId() + " (product " + product.getQuantity()
+                                + ", ledger " + expected + ")");
+                    }
+                }
+                return found;
+            });
+            if (products.isEmpty()) {
+                break;
+            }
+            drifted += mismatches.size();
+            mismatches.stream().limit(10 - samples.size()).forEach(samples::add);
+            afterId = products.get(products.size() - 1).getProductId();
+        }
+        
+        lastDriftedProducts.set(drifted);
+        if (drifted > 0) {
+            log.warn("Stock ledger disagrees with product quantities for {} products, e.g. {}", drifted, samples);
+        }
+    }
+    
+    // Ledger balance per product at `until`: latest snapshot at or before it, plus the movements after
+    private Map<Long, Long> ledgerQuantities(List<Long> productIds, LocalDateTime until) {
+        Map<Long, Long> quantities = snapshotRepository.findLatest(productIds, until).stream()
+                .collect(Collectors.toMap(StockSnapshot::getProductId, s -> s.getQuantity().longValue()));
+        for (ProductQuantity tail : movementRepository.sumTails(productIds, until, ORIGIN)) {
+            quantities.merge(tail.getProductId(), tail.getQuantity(), Long::sum);
+        }
+        return quantities;
+    }
+    
+    private Long parseCursor(String before) {
+        if (before == null || before.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(before);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
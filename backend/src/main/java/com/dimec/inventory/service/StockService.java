@@ -0,0 +1,138 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.dto.ProductStock;
+import com.dimec.inventory.dto.StockChange;
+import com.dimec.inventory.dto.StockLevel;
+import com.dimec.inventory.dto.StockMutationResult;
+import com.dimec.inventory.event.InventoryChangedEvent;
+import com.dimec.inventory.event.StockLevelChangedEvent;
+import com.dimec.inventory.exception.InsufficientStockException;
+import com.dimec.inventory.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Service
+public class StockService {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductVersions productVersions;
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${inventory.stock.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${inventory.stock.retry-backoff-ms:20}")
+    private long retryBackoffMs;
+    
+    // Applies a signed quantity change under the product's row lock; throws when stock would go negative
+    @Transactional
+    public StockChange adjust(Long productId, int quantityChange) {
+        StockMutationResult result = tryAdjust(productId, quantityChange);
+        switch (result.getStatus()) {
+            case PRODUCT_NOT_FOUND:
+                throw new RuntimeException("Product not found");
+            case INSUFFICIENT_STOCK:
+                throw new InsufficientStockException(productId, result.getAvailable(), -quantityChange);
+            default:
+                return result.getChange();
+        }
+    }
+    
+    // Same as adjust, but reports a refused change as a result instead of throwing, so the
+    // surrounding transaction is not marked rollback-only and the caller can decide what to do
+    @Transactional
+    public StockMutationResult tryAdjust(Long productId, int quantityChange) {
+        // Lock the row first: the level read is current and stays put until commit, so the
+        // decision below holds, a refused caller retrying with a smaller amount is guaranteed to
+        // fit, and the new level is known without reading the row again after the write
+        ProductStock current = productRepository.findStockForUpdate(productId).orElse(null);
+        if (current == null) {
+            return StockMutationResult.notFound();
+        }
+        if (current.getQuantity() + quantityChange < 0) {
+            return StockMutationResult.insufficient(current.getQuantity());
+        }
+        
+        // Taken under the lock, so a product's versions follow the order its changes commit in
+        long version = productVersions.next();
+        int updated = quantityChange < 0
+                ? productRepository.decrementStock(productId, -quantityChange, version)
+                : productRepository.incrementStock(productId, quantityChange, version);
+        if (updated == 0) {
+            // Cannot happen while we hold the lock; the conditional UPDATE stays as a guard
+            return StockMutationResult.insufficient(current.getQuantity());
+        }
+        
+        StockLevel before = current.toLevel();
+        StockLevel after = new StockLevel(before.getQuantity() + quantityChange,
+                before.getReorderLevel(), before.getUnitPrice());
+        
+        dashboardService.recordProductChange(before, after);
+        eventPublisher.publishEvent(new StockLevelChangedEvent(productId, before, after, version));
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.PRODUCT, productId, InventoryChangedEvent.Action.STOCK_CHANGED));
+        return StockMutationResult.applied(new StockChange(productId, current.getName(), before, after));
+    }
+    
+    @Transactional
+    public StockChange decrement(Long productId, int amount) {
+        return adjust(productId, -amount);
+    }
+    
+    @Transactional
+    public StockChange increment(Long productId, int amount) {
+        return adjust(productId, amount);
+    }
+    
+    // Runs the work in its own transaction, retrying a bounded number of times on transient lock
+    // failures (deadlock victim, lock wait timeout). Inside an existing transaction it runs once,
+    // because the caller owns the boundary and a rolled-back transaction cannot be resumed.
+    public <T> T executeWithRetry(Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return template.execute(status -> work.get());
+        }
+        
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return template.execute(status -> work.get());
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+    
+    private void backoff(int attempt) {
+        try {
+            long jitter = ThreadLocalRandom.current().nextLong(retryBackoffMs + 1);
+            Thread.sleep(retryBackoffMs * attempt + jitter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying stock update", e);
+        }
+    }
+}
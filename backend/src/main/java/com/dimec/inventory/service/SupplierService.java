@@ -1,8 +1,11 @@
 package com.dimec.inventory.service;
 
+import com.dimec.inventory.event.InventoryChangedEvent;
 import com.dimec.inventory.model.Supplier;
+import com.dimec.inventory.repository.ProductRepository;
 import com.dimec.inventory.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +17,21 @@ public class SupplierService {
     @Autowired
     private SupplierRepository supplierRepository;
     
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private IssuanceReportService issuanceReportService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductVersions productVersions;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public List<Supplier> getAllSuppliers() {
         return supplierRepository.findAll();
     }
@@ -28,26 +46,46 @@ public class SupplierService {
         if (supplier.getEmail() != null && supplierRepository.existsByEmail(supplier.getEmail())) {
             throw new RuntimeException("Supplier with this email already exists");
         }
-        return supplierRepository.save(supplier);
+        Supplier saved = supplierRepository.save(supplier);
+        dashboardService.recordSupplierCountChange(1);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.SUPPLIER, saved.getSupplierId(), InventoryChangedEvent.Action.CREATED));
+        return saved;
     }
     
     @Transactional
     public Supplier updateSupplier(Long id, Supplier supplierDetails) {
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Supplier not found"));
+        boolean renamed = !supplier.getName().equals(supplierDetails.getName());
         
         supplier.setName(supplierDetails.getName());
         supplier.setContact(supplierDetails.getContact());
         supplier.setEmail(supplierDetails.getEmail());
         supplier.setAddress(supplierDetails.getAddress());
         
-        return supplierRepository.save(supplier);
+        Supplier updated = supplierRepository.save(supplier);
+        if (renamed) {
+            // Product DTOs carry the supplier name
+            productVersions.supplierChanged(id);
+        }
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.SUPPLIER, id, InventoryChangedEvent.Action.UPDATED));
+        return updated;
     }
     
     @Transactional
     public void deleteSupplier(Long id) {
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Supplier not found"));
+        productVersions.productsDeleted(productRepository.findIdsBySupplierId(id));
         supplierRepository.delete(supplier);
+        
+        // Products (and their issuances) cascade with the supplier, so recount rather than track deltas
+        supplierRepository.flush();
+        dashboardService.rebuild();
+        issuanceReportService.productsDeleted();
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                InventoryChangedEvent.Entity.SUPPLIER, id, InventoryChangedEvent.Action.DELETED));
     }
 }
@@ -0,0 +1,105 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.event.InventoryChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-table write versions used to build ETags. Versions are bumped only after the writing
+// transaction commits, and callers read the version before the data, so a tag never claims
+// fresher content than the response it was sent with.
+@Service
+public class TableVersions {
+    
+    public enum Table {
+        PRODUCTS,
+        CATEGORIES,
+        SUPPLIERS,
+        ISSUANCES,
+        DASHBOARD
+    }
+    
+    // Versions restart with the process; the epoch keeps tags from a previous run from matching
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Table, AtomicLong> versions = new EnumMap<>(Table.class);
+    
+    public TableVersions() {
+        for (Table table : Table.values()) {
+            versions.put(table, new AtomicLong());
+        }
+    }
+    
+    public long get(Table table) {
+        return versions.get(table).get();
+    }
+    
+    // Weak ETag over the given tables, e.g. W/"lx3k9a2-12.3.1". Weak because the same version is
+    // served as JSON, Smile or CBOR: the bodies are equivalent but not byte-for-byte identical.
+    public String etag(Table... tables) {
+        StringBuilder tag = new StringBuilder(32).append("W/\"").append(epoch).append('-');
+        for (int i = 0; i < tables.length; i++) {
+            if (i > 0) {
+                tag.append('.');
+            }
+            tag.append(get(tables[i]));
+        }
+        return tag.append('"').toString();
+    }
+    
+    public void bumpAfterCommit(Table table) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(table);
+                }
+            });
+        } else {
+            bump(table);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        switch (event.getEntity()) {
+            case PRODUCT:
+                bump(Table.PRODUCTS);
+                // Issuance rows carry the product name and cascade with the product
+                if (event.getAction() != InventoryChangedEvent.Action.STOCK_CHANGED) {
+                    bump(Table.ISSUANCES);
+                }
+                break;
+            case CATEGORY:
+                // Deleting a category cascades to its products and their issuances
+                bump(Table.CATEGORIES);
+                bump(Table.PRODUCTS);
+                if (event.getAction() == InventoryChangedEvent.Action.DELETED) {
+                    bump(Table.ISSUANCES);
+                }
+                break;
+            case SUPPLIER:
+                bump(Table.SUPPLIERS);
+                bump(Table.PRODUCTS);
+                if (event.getAction() == InventoryChangedEvent.Action.DELETED) {
+                    bump(Table.ISSUANCES);
+                }
+                break;
+            case ISSUANCE:
+                bump(Table.ISSUANCES);
+                break;
+            default:
+                break;
+        }
+        // Every write moves at least one dashboard counter
+        bump(Table.DASHBOARD);
+    }
+    
+    private void bump(Table table) {
+        versions.get(table).incrementAndGet();
+    }
+}
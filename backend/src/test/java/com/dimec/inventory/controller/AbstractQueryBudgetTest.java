@@ -0,0 +1,275 @@
+package com.dimec.inventory.controller;
+
+import com.dimec.inventory.config.QueryBudget;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Calls every endpoint of the product, issuance, category, supplier and dashboard controllers
+// once against a seeded dataset, with strict query budgets, and counts the SQL statements of each
+// request. Fails when a request errors or runs over its handler's @QueryBudget, or when a handler
+// has no budget or was not called. The subclasses seed N and 10N products; once both have run,
+// every count must be the same at both sizes (no N+1, no full-table rescan).
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget-${random.uuid}",
+        "spring.h2.console.enabled=false",
+        "logging.level.com.dimec.inventory=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "inventory.dashboard.reconcile-interval-ms=86400000",
+        "inventory.metrics.query-budget.strict=true",
+        "inventory.seed.random-seed=42"
+})
+@DirtiesContext
+abstract class AbstractQueryBudgetTest {
+    
+    private static final List<Class<?>> CONTROLLERS = List.of(ProductController.class, IssuanceController.class,
+            CategoryController.class, SupplierController.class, DashboardController.class);
+    
+    // Handlers left out of the budget check. The export's queries run while the body streams on
+    // an async thread, after the handler has returned, so its request never sees them.
+    private static final Set<String> UNBUDGETED = Set.of("IssuanceController.exportIssuances");
+    
+    // Statement count per request, per dataset size, shared by the subclasses
+    private static final Map<Integer, Map<String, Integer>> COUNTS = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${inventory.seed.products}")
+    private int products;
+    
+    // One request: what was called, the handler that served it, its status and statement count
+    private record Measurement(String call, String handler, int status, int statements) {
+    }
+    
+    private final List<Measurement> measurements = new ArrayList<>();
+    private String token;
+    
+    @Test
+    void everyEndpointStaysWithinItsQueryBudget(TestReporter reporter) throws Exception {
+        awaitReady();
+        login();
+        callEverything();
+        
+        SoftAssertions softly = new SoftAssertions();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Set<String> called = new TreeSet<>();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Measurement m : measurements) {
+            called.add(m.handler());
+            Integer budget = budget(m.handler());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("request", m.call());
+            row.put("handler", m.handler());
+            row.put("status", m.status());
+            row.put("statements", m.statements());
+            row.put("budget", budget);
+            rows.add(row);
+            reporter.publishEntry(m.call(), m.statements() + " statements, budget " + (budget == null ? "-" : budget));
+            softly.assertThat(m.status()).as("status of %s", m.call()).isLessThan(400);
+            if (UNBUDGETED.contains(m.handler())) {
+                continue;
+            }
+            softly.assertThat(budget).as("@QueryBudget of %s", m.handler()).isNotNull();
+            if (budget != null) {
+                softly.assertThat(m.statements()).as("statements of %s", m.call()).isLessThanOrEqualTo(budget);
+            }
+            counts.put(m.call(), m.statements());
+        }
+        for (Class<?> controller : CONTROLLERS) {
+            for (Method method : controller.getDeclaredMethods()) {
+                String handler = controller.getSimpleName() + "." + method.getName();
+                if (AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class)) {
+                    softly.assertThat(called).as("handlers called").contains(handler);
+                }
+            }
+        }
+        
+        // Recorded in target/ like the benchmark results, one file per dataset size
+        objectMapper.writeValue(new File("target/query-budget-result-" + products + ".json"),
+                Map.of("products", products, "requests", rows));
+        
+        // Whichever size runs second compares itself with the first
+        COUNTS.put(products, counts);
+        COUNTS.forEach((size, other) -> softly.assertThat(counts)
+                .as("statement counts at N=%d against N=%d", products, size)
+                .isEqualTo(other));
+        softly.assertAll();
+    }
+    
+    // Readiness includes the dataset seeder, which runs after startup
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(10).toNanos();
+        while (restTemplate.getForEntity("/actuator/health/readiness", String.class).getStatusCode() != HttpStatus.OK) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Dataset was not seeded in time");
+            }
+            Thread.sleep(200);
+        }
+    }
+    
+    private void login() throws Exception {
+        ResponseEntity<String> response = restTemplate.postForEntity("/auth/login",
+                json("{\"email\":\"admin@dimec.com\",\"password\":\"admin123\"}"), String.class);
+        token = objectMapper.readTree(response.getBody()).get("token").asText();
+    }
+    
+    // The same sequence at every dataset size; ids come from the responses
+    private void callEverything() throws Exception {
+        JsonNode page = call("GET", "/products?limit=50", null);
+        call("GET", "/products?limit=50&after=" + page.get("next").asText(), null);
+        call("GET", "/products?all=true", null);
+        long productId = page.get("items").get(0).get("productId").asLong();
+        String name = page.get("items").get(0).get("name").asText();
+        call("GET", "/products/" + productId, null);
+        call("GET", "/products/low-stock", null);
+        call("GET", "/products/low-stock/top?n=20", null);
+        call("GET", "/products/changes?since=0&limit=100", null);
+        call("GET", "/products/" + productId + "/movements?limit=20", null);
+        call("GET", "/products/" + productId + "/stock", null);
+        call("GET", "/products/" + productId + "/stock?asOf=" + LocalDate.now().minusDays(30) + "T00:00:00", null);
+        call("GET", "/products/search?term=" + encode(name.split(" ")[0]), null);
+        call("GET", "/products/autocomplete?prefix=" + encode(name.substring(0, 3)) + "&limit=10", null);
+        
+        JsonNode categories = call("GET", "/categories", null);
+        long categoryId = categories.get(0).get("categoryId").asLong();
+        call("GET", "/categories/" + categoryId, null);
+        JsonNode suppliers = call("GET", "/suppliers", null);
+        long supplierId = suppliers.get(0).get("supplierId").asLong();
+        call("GET", "/suppliers/" + supplierId, null);
+        
+        JsonNode category = call("POST", "/categories", "{\"name\":\"Budget check\",\"description\":\"Temporary\"}");
+        long newCategoryId = category.get("categoryId").asLong();
+        call("PUT", "/categories/" + newCategoryId, "{\"name\":\"Budget check renamed\",\"description\":\"Temporary\"}");
+        JsonNode supplier = call("POST", "/suppliers",
+                "{\"name\":\"Budget check\",\"contact\":\"0700000000\",\"email\":\"budget@example.com\"}");
+        long newSupplierId = supplier.get("supplierId").asLong();
+        call("PUT", "/suppliers/" + newSupplierId,
+                "{\"name\":\"Budget check renamed\",\"contact\":\"0700000000\",\"email\":\"budget@example.com\"}");
+        
+        JsonNode product = call("POST", "/products", "{\"name\":\"Budget check item\",\"categoryId\":" + newCategoryId
+                + ",\"supplierId\":" + newSupplierId + ",\"quantity\":100,\"unitPrice\":12.5,\"reorderLevel\":10}");
+        long newProductId = product.get("productId").asLong();
+        call("PUT", "/products/" + newProductId, "{\"name\":\"Budget check item\",\"categoryId\":" + categoryId
+                + ",\"supplierId\":" + supplierId + ",\"quantity\":90,\"unitPrice\":12.5,\"reorderLevel\":10}");
+        
+        JsonNode issuance = call("POST", "/issuances", "{\"productId\":" + newProductId
+                + ",\"quantityIssued\":2,\"issuedTo\":\"Budget check\",\"purpose\":\"Budget check\"}");
+        long issuanceId = issuance.get("issuanceId").asLong();
+        String line = "{\"productId\":" + newProductId + ",\"quantityIssued\":1,\"issuedTo\":\"Budget check\"}";
+        call("POST", "/issuances/batch", "{\"lines\":[" + line + "," + line + "," + line + "]}");
+        call("GET", "/issuances", null);
+        call("GET", "/issuances/" + issuanceId, null);
+        call("GET", "/issuances/date-range?startDate=" + LocalDate.now().minusDays(7) + "&endDate=" + LocalDate.now(), null);
+        // Called for its status only, see UNBUDGETED
+        call("GET", "/issuances/export?format=csv&startDate=" + LocalDate.now() + "&endDate=" + LocalDate.now(), null);
+        call("DELETE", "/issuances/" + issuanceId, null);
+        
+        call("GET", "/dashboard/stats", null);
+        
+        call("DELETE", "/products/" + newProductId, null);
+        call("DELETE", "/categories/" + newCategoryId, null);
+        call("DELETE", "/suppliers/" + newSupplierId, null);
+    }
+    
+    private JsonNode call(String method, String path, String body) throws Exception {
+        Map<String, double[]> before = statementTotals();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        if (body != null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        ResponseEntity<String> response = restTemplate.exchange(path, HttpMethod.valueOf(method),
+                new HttpEntity<>(body, headers), String.class);
+        
+        // The filter records after the response has been written, so the client can get here first
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            Map<String, double[]> after = statementTotals();
+            for (Map.Entry<String, double[]> entry : after.entrySet()) {
+                double[] previous = before.getOrDefault(entry.getKey(), new double[2]);
+                if (entry.getValue()[0] > previous[0]) {
+                    int statements = (int) (entry.getValue()[1] - previous[1]);
+                    measurements.add(new Measurement(method + " " + path.replaceAll("\\d+", "{id}").replaceAll("\\?.*", ""),
+                            entry.getKey(), response.getStatusCode().value(), statements));
+                    MediaType contentType = response.getHeaders().getContentType();
+                    boolean json = contentType != null && contentType.getSubtype().contains("json");
+                    return json ? objectMapper.readTree(response.getBody()) : null;
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(method + " " + path + " was not recorded (status "
+                        + response.getStatusCode().value() + ")");
+            }
+            Thread.sleep(10);
+        }
+    }
+    
+    // Request count and statement total per handler
+    private Map<String, double[]> statementTotals() {
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        for (DistributionSummary summary : meterRegistry.find("inventory.http.handler.statements").summaries()) {
+            totals.put(summary.getId().getTag("handler"), new double[] {summary.count(), summary.totalAmount()});
+        }
+        return totals;
+    }
+    
+    private static Integer budget(String handler) {
+        for (Class<?> controller : CONTROLLERS) {
+            for (Method method : controller.getDeclaredMethods()) {
+                QueryBudget budget = method.getAnnotation(QueryBudget.class);
+                if (budget != null && handler.equals(controller.getSimpleName() + "." + method.getName())) {
+                    return budget.value();
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,8 @@
+package com.dimec.inventory.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Ten times the small dataset: statement counts must not change with it
+@TestPropertySource(properties = {"inventory.seed.products=2000", "inventory.seed.issuances=4000"})
+class QueryBudgetLargeDatasetTest extends AbstractQueryBudgetTest {
+}
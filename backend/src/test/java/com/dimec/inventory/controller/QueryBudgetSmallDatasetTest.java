@@ -0,0 +1,7 @@
+package com.dimec.inventory.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {"inventory.seed.products=200", "inventory.seed.issuances=400"})
+class QueryBudgetSmallDatasetTest extends AbstractQueryBudgetTest {
+}
@@ -0,0 +1,133 @@
+package com.dimec.inventory.service;
+
+import com.dimec.inventory.config.AuthenticatedUser;
+import com.dimec.inventory.dto.CreateIssuanceRequest;
+import com.dimec.inventory.dto.CreateProductRequest;
+import com.dimec.inventory.dto.ProductDTO;
+import com.dimec.inventory.exception.InsufficientStockException;
+import com.dimec.inventory.model.User;
+import com.dimec.inventory.repository.CategoryRepository;
+import com.dimec.inventory.repository.IssuanceRecordRepository;
+import com.dimec.inventory.repository.ProductRepository;
+import com.dimec.inventory.repository.SupplierRepository;
+import com.dimec.inventory.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many threads issuing one unit at a time from a single hot product until it runs out: the
+// conditional decrement must hand out exactly the stock there was, never more.
+@SpringBootTest
+class StockServiceConcurrencyTest {
+    
+    private static final int THREADS = 16;
+    private static final int STOCK = 200;
+    private static final String RESULT = "target/stock-concurrency-result.json";
+    
+    @Autowired
+    private IssuanceService issuanceService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private IssuanceRecordRepository issuanceRecordRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private SupplierRepository supplierRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void concurrentIssuancesNeverOversellOneProduct(TestReporter reporter) throws Exception {
+        ProductDTO product = productService.createProduct(new CreateProductRequest("Hot product",
+                categoryRepository.findAll().get(0).getCategoryId(),
+                supplierRepository.findAll().get(0).getSupplierId(),
+                STOCK, new BigDecimal("2.50"), 10, null));
+        User admin = userRepository.findByEmail("admin@dimec.com").orElseThrow();
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(admin.getUserId(), admin.getEmail(), admin.getRole()), null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + admin.getRole())));
+        
+        AtomicInteger issued = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger lockFailures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                start.await();
+                // Each thread keeps issuing until it is told the stock is gone
+                while (true) {
+                    try {
+                        issuanceService.createIssuance(
+                                new CreateIssuanceRequest(product.getProductId(), 1, "Load test", null));
+                        issued.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        refused.incrementAndGet();
+                        return null;
+                    } catch (TransientDataAccessException e) {
+                        // Lock wait timeout that outlived the service's own retries; try again
+                        lockFailures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        pool.shutdown();
+        
+        // Recorded in target/ like the benchmark results, and published to the test report
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("threads", THREADS);
+        result.put("issued", issued.get());
+        result.put("seconds", seconds);
+        result.put("issuancesPerSecond", issued.get() / seconds);
+        result.put("lockFailures", lockFailures.get());
+        objectMapper.writeValue(new File(RESULT), result);
+        result.forEach((key, value) -> reporter.publishEntry(key, String.valueOf(value)));
+        
+        assertThat(issued.get()).isEqualTo(STOCK);
+        assertThat(refused.get()).isEqualTo(THREADS);
+        assertThat(productRepository.findById(product.getProductId()).orElseThrow().getQuantity()).isZero();
+        assertThat(issuanceRecordRepository.countByProduct_ProductId(product.getProductId())).isEqualTo(STOCK);
+    }
+}
@@ -54,13 +54,27 @@ export const authAPI = {
     api.post('/auth/register', userData),
 };
 
+// Creates that must not run twice: the Idempotency-Key lets a retry after a dropped connection
+// get the first response back from the server instead of creating a second record
+const postIdempotent = (url: string, body: any, retries = 2) => {
+  const config = { headers: { 'Idempotency-Key': crypto.randomUUID() } };
+  const attempt = (left: number): Promise<any> =>
+    api.post(url, body, config).catch((error) =>
+      !error.response && left > 0 ? attempt(left - 1) : Promise.reject(error));
+  return attempt(retries);
+};
+
 // Products API
 export const productsAPI = {
-  getAll: () => api.get('/products'),
+  getAll: () => api.get('/products?all=true'),
+  getPage: (after?: string, limit?: number) =>
+    api.get('/products', { params: { after, limit } }),
   getById: (id: number) => api.get(`/products/${id}`),
   getLowStock: () => api.get('/products/low-stock'),
   search: (term: string) => api.get(`/products/search?term=${term}`),
-  create: (product: any) => api.post('/products', product),
+  autocomplete: (prefix: string, limit?: number) =>
+    api.get('/products/autocomplete', { params: { prefix, limit } }),
+  create: (product: any) => postIdempotent('/products', product),
   update: (id: number, product: any) => api.put(`/products/${id}`, product),
   delete: (id: number) => api.delete(`/products/${id}`),
 };
@@ -86,11 +100,24 @@ export const suppliersAPI = {
 // Issuances API
 export const issuancesAPI = {
   getAll: () => api.get('/issuances'),
+  getRecent: (limit: number) => api.get('/issuances', { params: { limit } }),
   getById: (id: number) => api.get(`/issuances/${id}`),
   getByDateRange: (startDate: string, endDate: string) =>
     api.get(`/issuances/date-range?startDate=${startDate}&endDate=${endDate}`),
-  create: (issuance: any) => api.post('/issuances', issuance),
+  create: (issuance: any) => postIdempotent('/issuances', issuance),
   delete: (id: number) => api.delete(`/issuances/${id}`),
+  // Streamed by the server; the rows never sit in the page
+  exportCsv: (startDate?: string, endDate?: string) =>
+    api.get('/issuances/export', {
+      params: { format: 'csv', startDate, endDate },
+      responseType: 'blob',
+    }),
+};
+
+// Reports API
+export const reportsAPI = {
+  getIssuances: (startDate: string, endDate: string, groupBy: 'day' | 'product' | 'category') =>
+    api.get('/reports/issuances', { params: { startDate, endDate, groupBy } }),
 };
 
 // Dashboard API
@@ -98,4 +125,56 @@ export const dashboardAPI = {
   getStats: () => api.get('/dashboard/stats'),
 };
 
+// Live updates over server-sent events. EventSource cannot send the bearer token,
+// so the stream is read with fetch. Returns a function that closes the stream.
+export const subscribeEvents = (
+  onEvent: (name: string, data: any) => void
+): (() => void) => {
+  const controller = new AbortController();
+  let retryTimer: ReturnType<typeof setTimeout> | undefined;
+
+  const connect = async () => {
+    try {
+      const response = await fetch(`${API_BASE_URL}/events`, {
+        headers: { Authorization: `Bearer ${localStorage.getItem('token')}` },
+        signal: controller.signal,
+      });
+      if (!response.ok || !response.body) {
+        throw new Error(`Event stream failed: ${response.status}`);
+      }
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = '';
+      while (true) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += value;
+        let end;
+        while ((end = buffer.indexOf('\n\n')) >= 0) {
+          const frame = buffer.slice(0, end);
+          buffer = buffer.slice(end + 2);
+          let name = 'message';
+          let data = '';
+          for (const line of frame.split('\n')) {
+            if (line.startsWith('event:')) name = line.slice(6).trim();
+            else if (line.startsWith('data:')) data += line.slice(5);
+          }
+          if (data) onEvent(name, JSON.parse(data));
+        }
+      }
+    } catch (error) {
+      if (controller.signal.aborted) return;
+    }
+    // Closed by the server (timeout, slow reader) or failed: reconnect for a fresh snapshot
+    if (!controller.signal.aborted) {
+      retryTimer = setTimeout(connect, 5000);
+    }
+  };
+
+  connect();
+  return () => {
+    controller.abort();
+    clearTimeout(retryTimer);
+  };
+};
+
 export default api;
@@ -1,6 +1,6 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import { useNavigate } from "react-router-dom";
-import { dashboardAPI } from "@/lib/api";
+import { dashboardAPI, subscribeEvents } from "@/lib/api";
 import {
   Card,
   CardContent,
@@ -29,25 +29,98 @@ interface DashboardStats {
   lowStockProducts: number;
   totalInventoryValue: number;
   totalIssuances: number;
+  version: number;
 }
 
 export const Dashboard: React.FC = () => {
   const [stats, setStats] = useState<DashboardStats | null>(null);
   const [isLoading, setIsLoading] = useState(true);
   const navigate = useNavigate();
+  // Stats as last applied, deltas that arrived ahead of a missing version, and whether a
+  // refetch to fill such a gap is in flight
+  const applied = useRef<DashboardStats | null>(null);
+  const heldDeltas = useRef(new Map<number, DashboardStats>());
+  const refetching = useRef(false);
 
   useEffect(() => {
     fetchDashboardStats();
+    // Snapshot on connect, then deltas as changes commit. Versions order them: a delta applies
+    // only on top of the version right before it, an older snapshot never replaces a newer one,
+    // and a delta that skips a version waits while the stats are fetched again.
+    return subscribeEvents((name, data) => {
+      if (name === "dashboard") {
+        applySnapshot(data);
+        setIsLoading(false);
+      } else if (name === "dashboard-delta") {
+        applyDelta(data);
+      }
+    });
   }, []);
 
+  const addDelta = (stats: DashboardStats, delta: DashboardStats): DashboardStats => ({
+    totalProducts: stats.totalProducts + delta.totalProducts,
+    totalCategories: stats.totalCategories + delta.totalCategories,
+    totalSuppliers: stats.totalSuppliers + delta.totalSuppliers,
+    lowStockProducts: stats.lowStockProducts + delta.lowStockProducts,
+    totalInventoryValue: stats.totalInventoryValue + delta.totalInventoryValue,
+    totalIssuances: stats.totalIssuances + delta.totalIssuances,
+    version: delta.version,
+  });
+
+  // Applies held deltas that now continue the sequence, then shows the result
+  const publish = (stats: DashboardStats) => {
+    let next = stats;
+    let delta = heldDeltas.current.get(next.version + 1);
+    while (delta) {
+      heldDeltas.current.delete(delta.version);
+      next = addDelta(next, delta);
+      delta = heldDeltas.current.get(next.version + 1);
+    }
+    heldDeltas.current.forEach((_, version) => {
+      if (version <= next.version) {
+        heldDeltas.current.delete(version);
+      }
+    });
+    applied.current = next;
+    setStats(next);
+  };
+
+  const applySnapshot = (snapshot: DashboardStats) => {
+    if (!applied.current || snapshot.version > applied.current.version) {
+      publish(snapshot);
+    }
+  };
+
+  const applyDelta = (delta: DashboardStats) => {
+    const base = applied.current;
+    if (base && delta.version <= base.version) {
+      return;
+    }
+    if (base && delta.version === base.version + 1) {
+      publish(addDelta(base, delta));
+      return;
+    }
+    // Before the first snapshot, or after a skipped version: hold it until the stats catch up
+    heldDeltas.current.set(delta.version, delta);
+    if (base) {
+      fetchDashboardStats();
+    }
+  };
+
   const fetchDashboardStats = async () => {
+    if (refetching.current) {
+      return;
+    }
+    refetching.current = true;
     try {
       const response = await dashboardAPI.getStats();
-      setStats(response.data);
+      // The event stream's snapshot may have arrived first and be newer
+      applySnapshot(response.data);
     } catch (error) {
       toast.error("Failed to fetch dashboard statistics");
       console.error("Error fetching dashboard stats:", error);
     } finally {
+      refetching.current = false;
       setIsLoading(false);
     }
   };
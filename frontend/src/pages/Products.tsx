@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { productsAPI, categoriesAPI, suppliersAPI } from '@/lib/api';
+import { productsAPI, categoriesAPI, suppliersAPI, subscribeEvents } from '@/lib/api';
 import { Button } from '@/components/ui/button';
 import { Input } from '@/components/ui/input';
 import { Label } from '@/components/ui/label';
@@ -33,6 +33,7 @@ interface Product {
   reorderLevel: number;
   description: string;
   lowStock: boolean;
+  changeVersion: number;
 }
 
 interface Category {
@@ -72,6 +73,27 @@ export const Products: React.FC = () => {
     fetchProducts();
     fetchCategories();
     fetchSuppliers();
+    // Keep quantities current without refetching the catalog. Events for one product can arrive
+    // out of order, so one whose version is not newer than the row's is stale and ignored.
+    return subscribeEvents((name, data) => {
+      if (name !== 'stock') return;
+      const isNewer = (p: Product) => p.productId === data.productId && data.version > p.changeVersion;
+      setProducts((current) =>
+        data.quantity === null
+          ? current.filter((p) => !isNewer(p))
+          : current.map((p) =>
+              isNewer(p)
+                ? {
+                    ...p,
+                    quantity: data.quantity,
+                    reorderLevel: data.reorderLevel,
+                    lowStock: data.lowStock,
+                    changeVersion: data.version,
+                  }
+                : p
+            )
+      );
+    });
   }, []);
 
   useEffect(() => {
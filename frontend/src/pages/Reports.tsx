@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { productsAPI, issuancesAPI, dashboardAPI } from '@/lib/api';
+import { productsAPI, issuancesAPI, dashboardAPI, reportsAPI } from '@/lib/api';
 import { Button } from '@/components/ui/button';
 import { Input } from '@/components/ui/input';
 import { Label } from '@/components/ui/label';
@@ -37,6 +37,30 @@ interface IssuanceRecord {
   purpose: string;
 }
 
+interface IssuanceReportRow {
+  issueDate?: string;
+  productId?: number;
+  productName?: string;
+  categoryId?: number;
+  categoryName?: string;
+  issuanceCount: number;
+  totalQuantity: number;
+  totalValue: number;
+}
+
+type ReportGrouping = 'day' | 'product' | 'category';
+
+const RECENT_ISSUANCES = 10;
+
+const isoDate = (date: Date) => date.toISOString().slice(0, 10);
+
+const lastThirtyDays = () => {
+  const end = new Date();
+  const start = new Date(end);
+  start.setDate(start.getDate() - 29);
+  return { startDate: isoDate(start), endDate: isoDate(end) };
+};
+
 interface DashboardStats {
   totalProducts: number;
   totalCategories: number;
@@ -48,13 +72,13 @@ interface DashboardStats {
 
 export const Reports: React.FC = () => {
   const [products, setProducts] = useState<Product[]>([]);
-  const [issuances, setIssuances] = useState<IssuanceRecord[]>([]);
+  const [recentIssuances, setRecentIssuances] = useState<IssuanceRecord[]>([]);
+  const [reportRows, setReportRows] = useState<IssuanceReportRow[]>([]);
+  const [groupBy, setGroupBy] = useState<ReportGrouping>('product');
   const [stats, setStats] = useState<DashboardStats | null>(null);
   const [isLoading, setIsLoading] = useState(true);
-  const [dateRange, setDateRange] = useState({
-    startDate: '',
-    endDate: '',
-  });
+  const [isExporting, setIsExporting] = useState(false);
+  const [dateRange, setDateRange] = useState(lastThirtyDays);
 
   useEffect(() => {
     fetchReportData();
@@ -62,15 +86,17 @@ export const Reports: React.FC = () => {
 
   const fetchReportData = async () => {
     try {
-      const [productsRes, issuancesRes, statsRes] = await Promise.all([
+      const [productsRes, recentRes, statsRes, reportRes] = await Promise.all([
         productsAPI.getAll(),
-        issuancesAPI.getAll(),
+        issuancesAPI.getRecent(RECENT_ISSUANCES),
         dashboardAPI.getStats(),
+        reportsAPI.getIssuances(dateRange.startDate, dateRange.endDate, groupBy),
       ]);
       
       setProducts(productsRes.data);
-      setIssuances(issuancesRes.data);
+      setRecentIssuances(recentRes.data);
       setStats(statsRes.data);
+      setReportRows(reportRes.data);
     } catch (error) {
       toast.error('Failed to fetch report data');
     } finally {
@@ -78,21 +104,26 @@ export const Reports: React.FC = () => {
     }
   };
 
-  const fetchIssuancesByDateRange = async () => {
+  // Totals are aggregated by the server; the page only receives one row per group
+  const fetchIssuanceReport = async (grouping: ReportGrouping = groupBy) => {
     if (!dateRange.startDate || !dateRange.endDate) {
       toast.error('Please select both start and end dates');
       return;
     }
 
     try {
-      const response = await issuancesAPI.getByDateRange(dateRange.startDate, dateRange.endDate);
-      setIssuances(response.data);
-      toast.success(`Found ${response.data.length} issuance records`);
+      const response = await reportsAPI.getIssuances(dateRange.startDate, dateRange.endDate, grouping);
+      setReportRows(response.data);
     } catch (error) {
       toast.error('Failed to fetch issuances for selected date range');
     }
   };
 
+  const changeGrouping = (grouping: ReportGrouping) => {
+    setGroupBy(grouping);
+    fetchIssuanceReport(grouping);
+  };
+
   const exportToCSV = (data: any[], filename: string) => {
     if (data.length === 0) {
       toast.error('No data to export');
@@ -146,17 +177,27 @@ export const Reports: React.FC = () => {
     exportToCSV(exportData, 'inventory-report.csv');
   };
 
-  const exportIssuanceReport = () => {
-    const exportData = issuances.map(i => ({
-      'Product Name': i.productName,
-      'Quantity Issued': i.quantityIssued,
-      'Issued To': i.issuedTo,
-      'Issued By': i.userName,
-      'Issue Date': new Date(i.issueDate).toLocaleDateString(),
-      'Purpose': i.purpose || 'N/A',
-    }));
-    
-    exportToCSV(exportData, 'issuance-report.csv');
+  const exportIssuanceReport = async () => {
+    if (!dateRange.startDate || !dateRange.endDate) {
+      toast.error('Please select both start and end dates');
+      return;
+    }
+
+    setIsExporting(true);
+    try {
+      const response = await issuancesAPI.exportCsv(dateRange.startDate, dateRange.endDate);
+      const url = window.URL.createObjectURL(response.data);
+      const a = document.createElement('a');
+      a.href = url;
+      a.download = 'issuance-report.csv';
+      a.click();
+      window.URL.revokeObjectURL(url);
+      toast.success('Report exported successfully');
+    } catch (error) {
+      toast.error('Failed to export issuances');
+    } finally {
+      setIsExporting(false);
+    }
   };
 
   if (isLoading) {
@@ -168,7 +209,21 @@ export const Reports: React.FC = () => {
   }
 
   const lowStockProducts = products.filter(p => p.lowStock);
-  const recentIssuances = issuances.slice(0, 10);
+  const issuanceTotals = reportRows.reduce(
+    (totals, row) => ({
+      count: totals.count + row.issuanceCount,
+      quantity: totals.quantity + row.totalQuantity,
+      value: totals.value + row.totalValue,
+    }),
+    { count: 0, quantity: 0, value: 0 }
+  );
+  const reportLabel = (row: IssuanceReportRow) =>
+    groupBy === 'day'
+      ? new Date(row.issueDate!).toLocaleDateString()
+      : groupBy === 'product'
+        ? row.productName
+        : row.categoryName || 'Uncategorized';
+  const maxGroupQuantity = Math.max(1, ...reportRows.map(row => row.totalQuantity));
 
   return (
     <div className="min-h-screen bg-gray-50">
@@ -277,17 +332,17 @@ export const Reports: React.FC = () => {
                   Issuance Report
                 </CardTitle>
                 <CardDescription>
-                  Product issuance records
+                  Product issuance records in the selected date range
                 </CardDescription>
               </CardHeader>
               <CardContent>
                 <Button 
                   onClick={exportIssuanceReport} 
                   className="w-full"
-                  disabled={issuances.length === 0}
+                  disabled={isExporting || issuanceTotals.count === 0}
                 >
                   <Download className="h-4 w-4 mr-2" />
-                  Export Issuances ({issuances.length})
+                  Export Issuances ({issuanceTotals.count})
                 </Button>
               </CardContent>
             </Card>
@@ -301,7 +356,7 @@ export const Reports: React.FC = () => {
                 Date Range Filter
               </CardTitle>
               <CardDescription>
-                Filter issuance records by date range
+                Summarize issuance records by date range
               </CardDescription>
             </CardHeader>
             <CardContent>
@@ -325,7 +380,7 @@ export const Reports: React.FC = () => {
                   />
                 </div>
                 <div className="flex items-end">
-                  <Button onClick={fetchIssuancesByDateRange} className="w-full">
+                  <Button onClick={() => fetchIssuanceReport()} className="w-full">
                     Filter Records
                   </Button>
                 </div>
@@ -333,6 +388,70 @@ export const Reports: React.FC = () => {
             </CardContent>
           </Card>
 
+          {/* Issuance Summary */}
+          <Card className="mb-8">
+            <CardHeader>
+              <div className="flex items-center justify-between">
+                <div>
+                  <CardTitle className="flex items-center">
+                    <FileText className="h-5 w-5 mr-2 text-purple-600" />
+                    Issuance Summary
+                  </CardTitle>
+                  <CardDescription>
+                    {dateRange.startDate} to {dateRange.endDate}
+                  </CardDescription>
+                </div>
+                <div className="flex gap-2">
+                  {(['day', 'product', 'category'] as ReportGrouping[]).map((grouping) => (
+                    <Button
+                      key={grouping}
+                      size="sm"
+                      variant={groupBy === grouping ? 'default' : 'outline'}
+                      onClick={() => changeGrouping(grouping)}
+                    >
+                      By {grouping}
+                    </Button>
+                  ))}
+                </div>
+              </div>
+            </CardHeader>
+            <CardContent>
+              <div className="grid grid-cols-1 md:grid-cols-3 gap-4 mb-6">
+                <div>
+                  <p className="text-sm text-gray-600">Issuances</p>
+                  <p className="text-2xl font-bold">{issuanceTotals.count}</p>
+                </div>
+                <div>
+                  <p className="text-sm text-gray-600">Quantity Issued</p>
+                  <p className="text-2xl font-bold">{issuanceTotals.quantity}</p>
+                </div>
+                <div>
+                  <p className="text-sm text-gray-600">Value Issued</p>
+                  <p className="text-2xl font-bold">${issuanceTotals.value.toLocaleString()}</p>
+                </div>
+              </div>
+
+              <div className="space-y-2">
+                {reportRows.map((row, index) => (
+                  <div key={index} className="flex items-center gap-4">
+                    <span className="w-40 truncate text-sm">{reportLabel(row)}</span>
+                    <div className="flex-1 bg-gray-100 rounded h-3">
+                      <div
+                        className="bg-purple-600 h-3 rounded"
+                        style={{ width: `${(row.totalQuantity / maxGroupQuantity) * 100}%` }}
+                      />
+                    </div>
+                    <span className="w-24 text-right text-sm">Qty: {row.totalQuantity}</span>
+                  </div>
+                ))}
+              </div>
+
+              {reportRows.length === 0 && (
+                <p className="text-center text-gray-600 py-4">No issuances in this date range</p>
+              )}
+            </CardContent>
+          </Card>
+
           {/* Low Stock Alert */}
           {lowStockProducts.length > 0 && (
             <Alert className="mb-8 border-red-200 bg-red-50">
@@ -352,7 +471,7 @@ export const Reports: React.FC = () => {
                 Recent Issuances
               </CardTitle>
               <CardDescription>
-                Latest 10 issuance records
+                Latest {RECENT_ISSUANCES} issuance records
               </CardDescription>
             </CardHeader>
             <CardContent>
@@ -373,7 +492,7 @@ export const Reports: React.FC = () => {
                 ))}
               </div>
               
-              {issuances.length === 0 && (
+              {recentIssuances.length === 0 && (
                 <div className="text-center py-8">
                   <FileText className="h-12 w-12 text-gray-400 mx-auto mb-4" />
                   <p className="text-gray-600">No issuance records found</p>